@@ -0,0 +1,164 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.annotator;
+
+import com.intellij.lang.annotation.AnnotationHolder;
+import com.intellij.lang.annotation.Annotator;
+import com.intellij.psi.*;
+import defrac.intellij.facet.DefracFacet;
+import defrac.intellij.psi.DefracFileSummary;
+import defrac.intellij.psi.ReadWriteFieldNames;
+import defrac.intellij.util.Names;
+import org.jetbrains.annotations.NotNull;
+
+import static com.intellij.psi.util.PsiTreeUtil.getParentOfType;
+import static defrac.intellij.psi.DefracPsiUtil.*;
+
+/**
+ * Dispatches each element to the defrac checks that apply to it
+ *
+ * <p>The facet, the file summary and the enclosing annotation of a literal are
+ * looked up once per element instead of once per check.
+ */
+public final class DefracAnnotator implements Annotator {
+  @NotNull
+  private final MultiPlatformClassAnnotator multiPlatformClassAnnotator = new MultiPlatformClassAnnotator();
+
+  @NotNull
+  private final InjectionAnnotator injectionAnnotator = new InjectionAnnotator();
+
+  @NotNull
+  private final MacroAnnotator macroAnnotator = new MacroAnnotator();
+
+  @NotNull
+  private final ReadOnlyAnnotator readOnlyAnnotator = new ReadOnlyAnnotator();
+
+  @NotNull
+  private final UnsupportedAnnotator unsupportedAnnotator = new UnsupportedAnnotator();
+
+  @NotNull
+  private final WriteOnlyAnnotator writeOnlyAnnotator = new WriteOnlyAnnotator();
+
+  @NotNull
+  private final IncompatibleReadWriteAnnotator incompatibleReadWriteAnnotator = new IncompatibleReadWriteAnnotator();
+
+  @NotNull
+  private final IntrinsicAnnotator intrinsicAnnotator = new IntrinsicAnnotator();
+
+  public DefracAnnotator() {}
+
+  @Override
+  public void annotate(@NotNull final PsiElement element,
+                       @NotNull final AnnotationHolder holder) {
+    if(element instanceof PsiField) {
+      final DefracFileSummary summary = DefracFileSummary.getInstance(element);
+
+      if(summary.mayUseAnnotation(Names.defrac_dni_ReadOnly) && summary.mayUseAnnotation(Names.defrac_dni_WriteOnly)) {
+        incompatibleReadWriteAnnotator.annotate((PsiField)element, holder);
+      }
+
+      return;
+    }
+
+    if(!(element instanceof PsiLiteralExpression
+        || element instanceof PsiClass
+        || element instanceof PsiMethod
+        || element instanceof PsiAssignmentExpression
+        || element instanceof PsiJavaCodeReferenceElement)) {
+      return;
+    }
+
+    final DefracFacet facet = DefracFacet.getInstance(element);
+
+    if(facet == null) {
+      // @ReadOnly and @WriteOnly fields may be used outside of defrac modules
+      annotateReadWrite(element, holder);
+      return;
+    }
+
+    if(element instanceof PsiLiteralExpression) {
+      annotateLiteral((PsiLiteralExpression)element, holder, facet);
+    } else if(element instanceof PsiClass) {
+      if(!facet.isMacroLibrary()) {
+        injectionAnnotator.annotateClass((PsiClass)element, holder, facet);
+      }
+
+      if(mayBeUnsupportedDeclaration(element)) {
+        unsupportedAnnotator.annotateClass((PsiClass)element, holder, facet);
+      }
+    } else if(element instanceof PsiMethod) {
+      if(mayBeUnsupportedDeclaration(element)) {
+        unsupportedAnnotator.annotateMethod((PsiMethod)element, holder, facet);
+      }
+    } else {
+      if(element instanceof PsiJavaCodeReferenceElement) {
+        unsupportedAnnotator.annotateReference((PsiJavaCodeReferenceElement)element, holder, facet);
+      }
+
+      annotateReadWrite(element, holder);
+    }
+  }
+
+  private void annotateReadWrite(@NotNull final PsiElement element,
+                                 @NotNull final AnnotationHolder holder) {
+    // references are only resolved if a field with their name is annotated
+    if(element instanceof PsiAssignmentExpression) {
+      final PsiExpression lhs = ((PsiAssignmentExpression)element).getLExpression();
+
+      if(lhs instanceof PsiReferenceExpression
+          && ReadWriteFieldNames.mayBeReadOnly(element.getProject(), ((PsiReferenceExpression)lhs).getReferenceName())) {
+        readOnlyAnnotator.annotate((PsiAssignmentExpression)element, holder);
+      }
+    } else if(element instanceof PsiReferenceExpression) {
+      if(ReadWriteFieldNames.mayBeWriteOnly(element.getProject(), ((PsiReferenceExpression)element).getReferenceName())) {
+        writeOnlyAnnotator.annotate((PsiReferenceExpression)element, holder);
+      }
+    }
+  }
+
+  private void annotateLiteral(@NotNull final PsiLiteralExpression literal,
+                               @NotNull final AnnotationHolder holder,
+                               @NotNull final DefracFacet facet) {
+    if(facet.isMacroLibrary() || !DefracFileSummary.getInstance(literal).hasDefracAnnotations()) {
+      return;
+    }
+
+    final PsiAnnotation annotation =
+        getParentOfType(literal, PsiAnnotation.class, /*strict=*/false);
+
+    if(annotation == null) {
+      return;
+    }
+
+    final String qualifiedName = annotation.getQualifiedName();
+
+    if(isInjectAnnotation(qualifiedName, /*nameOfAnnotation=*/null)) {
+      multiPlatformClassAnnotator.annotate(literal, holder, facet, annotation, qualifiedName);
+    } else if(isInjectorAnnotation(qualifiedName)) {
+      injectionAnnotator.annotate(literal, holder, facet);
+    } else if(isMacroAnnotation(qualifiedName, /*nameOfAnnotation=*/null)) {
+      macroAnnotator.annotate(literal, holder, facet, annotation, qualifiedName);
+    } else if(isIntrinsicAnnotation(qualifiedName)) {
+      intrinsicAnnotator.annotate(literal, holder, facet, annotation);
+    }
+  }
+
+  private static boolean mayBeUnsupportedDeclaration(@NotNull final PsiElement element) {
+    // declarations are unsupported only if annotated within this file
+    return DefracFileSummary.getInstance(element).mayUseAnyAnnotation(Names.ALL_UNSUPPORTED);
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.annotator;
+
+import com.intellij.lang.annotation.AnnotationHolder;
+import com.intellij.lang.annotation.ExternalAnnotator;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.psi.PsiFile;
+import defrac.intellij.psi.validation.DefracFileValidator;
+import defrac.intellij.psi.validation.ValidationProblem;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Validates multi-platform classes and macros against their targets in other modules
+ *
+ * <p>The annotators of this package only check what can be decided locally. Validating
+ * the resolved targets of an annotation happens in the background after the main
+ * highlighting pass has finished.
+ */
+public final class DefracExternalAnnotator extends ExternalAnnotator<PsiFile, List<DefracFileValidator.Diagnostic>> {
+  public DefracExternalAnnotator() {}
+
+  @Nullable
+  @Override
+  public PsiFile collectInformation(@NotNull final PsiFile file) {
+    return DefracFileValidator.isApplicable(file) ? file : null;
+  }
+
+  @Nullable
+  @Override
+  public List<DefracFileValidator.Diagnostic> doAnnotate(@NotNull final PsiFile file) {
+    return ApplicationManager.getApplication().runReadAction(new Computable<List<DefracFileValidator.Diagnostic>>() {
+      @Override
+      public List<DefracFileValidator.Diagnostic> compute() {
+        return file.isValid() ? DefracFileValidator.validate(file) : null;
+      }
+    });
+  }
+
+  @Override
+  public void apply(@NotNull final PsiFile file,
+                    @Nullable final List<DefracFileValidator.Diagnostic> diagnostics,
+                    @NotNull final AnnotationHolder holder) {
+    if(diagnostics == null) {
+      return;
+    }
+
+    for(final DefracFileValidator.Diagnostic diagnostic : diagnostics) {
+      if(!diagnostic.getElement().isValid()) {
+        continue;
+      }
+
+      for(final ValidationProblem problem : diagnostic.getProblems()) {
+        problem.annotate(diagnostic.getElement(), holder);
+      }
+    }
+  }
+}
@@ -18,8 +18,6 @@ package defrac.intellij.annotator;
 
 import com.intellij.lang.annotation.Annotation;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
-import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiField;
 import defrac.intellij.DefracBundle;
 import defrac.intellij.annotator.quickfix.RemoveReadOnlyQuickFix;
@@ -30,24 +28,17 @@ import static defrac.intellij.psi.DefracPsiUtil.isReadOnly;
 import static defrac.intellij.psi.DefracPsiUtil.isWriteOnly;
 
 /**
- *
+ * Checks that no field is both {@code @ReadOnly} and {@code @WriteOnly}
  */
-public final class IncompatibleReadWriteAnnotator implements Annotator {
-  public IncompatibleReadWriteAnnotator() {}
-
-  @Override
-  public void annotate(@NotNull final PsiElement element,
-                       @NotNull final AnnotationHolder holder) {
-    if(!(element instanceof PsiField)) {
-      return;
-    }
-
-    final PsiField field = (PsiField)element;
+final class IncompatibleReadWriteAnnotator {
+  IncompatibleReadWriteAnnotator() {}
 
+  void annotate(@NotNull final PsiField field,
+                @NotNull final AnnotationHolder holder) {
     if(isReadOnly(field) && isWriteOnly(field)) {
       final Annotation annotation =
           holder.
-              createErrorAnnotation(element, DefracBundle.message("annotator.readWrite.both"));
+              createErrorAnnotation(field, DefracBundle.message("annotator.readWrite.both"));
 
       annotation.registerFix(new RemoveWriteOnlyQuickFix(field));
       annotation.registerFix(new RemoveReadOnlyQuickFix(field));
@@ -20,7 +20,6 @@ import com.intellij.codeInsight.daemon.quickFix.CreateClassOrPackageFix;
 import com.intellij.codeInsight.intention.AddAnnotationFix;
 import com.intellij.lang.annotation.Annotation;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
 import com.intellij.psi.util.ClassKind;
@@ -31,7 +30,6 @@ import defrac.intellij.annotator.quickfix.RemoveInjectorQuickFix;
 import defrac.intellij.facet.DefracFacet;
 import defrac.intellij.psi.DefracPsiUtil;
 import defrac.intellij.psi.InjectorClassReference;
-import defrac.intellij.psi.validation.MultiPlatformClassValidator;
 import defrac.intellij.util.Names;
 import org.jetbrains.annotations.NotNull;
 
@@ -39,39 +37,16 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.intellij.psi.util.PsiTreeUtil.getParentOfType;
 import static com.intellij.psi.util.PsiUtil.mapElements;
-import static defrac.intellij.psi.DefracPsiUtil.isInjectorAnnotation;
 
 /**
- *
+ * Checks the literal of an {@code @Injector} annotation and the class it belongs to
  */
-public final class InjectionAnnotator implements Annotator {
-  public InjectionAnnotator() {}
-
-  @Override
-  public void annotate(@NotNull final PsiElement element,
-                       @NotNull final AnnotationHolder holder) {
-    if(element instanceof PsiClass) {
-      annotateInjectClass((PsiClass) element, holder);
-      return;
-    }
-
-    if(!(element instanceof PsiLiteralExpression)) {
-      return;
-    }
-
-    final DefracFacet facet = DefracFacet.getInstance(element);
-
-    if(facet == null || facet.isMacroLibrary()) {
-      return;
-    }
-
-    final PsiAnnotation annotation =
-        getParentOfType(element, PsiAnnotation.class, /*strict=*/false);
-
-    if(annotation == null || !isInjectorAnnotation(annotation)) {
-      return;
-    }
+final class InjectionAnnotator {
+  InjectionAnnotator() {}
 
+  void annotate(@NotNull final PsiLiteralExpression element,
+                @NotNull final AnnotationHolder holder,
+                @NotNull final DefracFacet facet) {
     final PsiClass klass = getParentOfType(element, PsiClass.class, /*strict=*/false);
 
     if(klass == null || klass.getNameIdentifier() == null) {
@@ -127,23 +102,17 @@ public final class InjectionAnnotator implements Annotator {
       } else {
         final PsiElement[] psiElements = mapElements(resolveResults);
 
-        if(psiElements.length == 1) {
-          MultiPlatformClassValidator.annotate(klass.getNameIdentifier(), holder, psiElements[0], klass);
-        } else {
+        // a single injector is validated by the DefracExternalAnnotator
+        if(psiElements.length != 1) {
           holder.createErrorAnnotation(element, DefracBundle.message("annotator.ambiguousQname", defracRef.getValue()));
         }
       }
     }
   }
 
-  private void annotateInjectClass(@NotNull final PsiClass injectClass,
-                                   @NotNull final AnnotationHolder holder) {
-    final DefracFacet facet = DefracFacet.getInstance(injectClass);
-
-    if(facet == null || facet.isMacroLibrary()) {
-      return;
-    }
-
+  void annotateClass(@NotNull final PsiClass injectClass,
+                     @NotNull final AnnotationHolder holder,
+                     @NotNull final DefracFacet facet) {
     final Project project = injectClass.getProject();
     final DefracPlatform platform = facet.getPlatform();
     final PsiElementFactory elementFactory = JavaPsiFacade.getInstance(project).getElementFactory();
@@ -17,7 +17,6 @@
 package defrac.intellij.annotator;
 
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.psi.*;
 import defrac.intellij.DefracBundle;
 import defrac.intellij.facet.DefracFacet;
@@ -25,40 +24,22 @@ import org.jetbrains.annotations.NotNull;
 
 import static com.intellij.psi.util.PsiTreeUtil.getParentOfType;
 import static defrac.intellij.psi.DefracPsiUtil.getValue;
-import static defrac.intellij.psi.DefracPsiUtil.isIntrinsicAnnotation;
 
 /**
- *
+ * Checks the literal of an {@code @Intrinsic} annotation
  */
-public final class IntrinsicAnnotator implements Annotator {
-  public IntrinsicAnnotator() {
-  }
-
-  @Override
-  public void annotate(@NotNull final PsiElement element,
-                       @NotNull final AnnotationHolder holder) {
-    if(!(element instanceof PsiLiteralExpression)) {
-      return;
-    }
-
-    final DefracFacet facet = DefracFacet.getInstance(element);
-
-    if(facet == null || facet.isMacroLibrary()) {
-      return;
-    }
+final class IntrinsicAnnotator {
+  IntrinsicAnnotator() {}
 
+  void annotate(@NotNull final PsiLiteralExpression element,
+                @NotNull final AnnotationHolder holder,
+                @NotNull final DefracFacet facet,
+                @NotNull final PsiAnnotation annotation) {
     if(!(facet.getPlatform().isIOS() || facet.getPlatform().isWeb())) {
       return;
     }
 
-    final PsiAnnotation annotation =
-        getParentOfType(element, PsiAnnotation.class, /*strict=*/false);
-
-    if(annotation == null || !isIntrinsicAnnotation(annotation)) {
-      return;
-    }
-
-    final String text = getValue((PsiLiteralExpression) element);
+    final String text = getValue(element);
 
     if(text == null) {
       return;
@@ -21,7 +21,6 @@ import com.intellij.codeInsight.daemon.impl.quickfix.CreateMethodQuickFix;
 import com.intellij.codeInsight.daemon.quickFix.CreateClassOrPackageFix;
 import com.intellij.lang.annotation.Annotation;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.psi.*;
 import com.intellij.psi.util.ClassKind;
 import com.intellij.psi.util.PsiTreeUtil;
@@ -32,7 +31,6 @@ import defrac.intellij.annotator.quickfix.ChangeMacroSignatureQuickFix;
 import defrac.intellij.facet.DefracFacet;
 import defrac.intellij.psi.MacroClassReference;
 import defrac.intellij.psi.MacroMethodReference;
-import defrac.intellij.psi.validation.MacroValidator;
 import defrac.intellij.util.Names;
 import org.jetbrains.annotations.NotNull;
 
@@ -42,36 +40,20 @@ import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
-import static defrac.intellij.psi.DefracPsiUtil.isMacroAnnotation;
 import static defrac.intellij.psi.DefracPsiUtil.mapToContainingClasses;
 
 /**
- *
+ * Checks the literal of a {@code @Macro} annotation
  */
-public final class MacroAnnotator implements Annotator {
-  public MacroAnnotator() {}
-
-  @Override
-  public void annotate(@NotNull final PsiElement element,
-                       @NotNull final AnnotationHolder holder) {
-    if(!(element instanceof PsiLiteralExpression)) {
-      return;
-    }
-
-    final DefracFacet facet = DefracFacet.getInstance(element);
-
-    if(facet == null || facet.isMacroLibrary()) {
-      return;
-    }
-
-    final PsiAnnotation annotation =
-        PsiTreeUtil.getParentOfType(element, PsiAnnotation.class, /*strict=*/false);
-
-    if(annotation == null || !isMacroAnnotation(annotation)) {
-      return;
-    }
-
-    final boolean isGeneric = Names.defrac_annotation_Macro.equals(annotation.getQualifiedName());
+final class MacroAnnotator {
+  MacroAnnotator() {}
+
+  void annotate(@NotNull final PsiLiteralExpression element,
+                @NotNull final AnnotationHolder holder,
+                @NotNull final DefracFacet facet,
+                @NotNull final PsiAnnotation annotation,
+                @NotNull final String qualifiedName) {
+    final boolean isGeneric = Names.defrac_annotation_Macro.equals(qualifiedName);
     final PsiMethod method = PsiTreeUtil.getParentOfType(element, PsiMethod.class, /*strict=*/false);
 
     if(method == null) {
@@ -107,7 +89,7 @@ public final class MacroAnnotator implements Annotator {
             final CreateClassOrPackageFix fix = DefracAnnotatorUtil.createCreateClassOrPackageFix(
                 qualifiedClassName == null ? "" : qualifiedClassName,
                 checkNotNull(DefracFacet.getInstance(method)).
-                    getMacroSearchScope(DefracPlatform.byMacroAnnotation(annotation.getQualifiedName())),
+                    getMacroSearchScope(DefracPlatform.byMacroAnnotation(qualifiedName)),
                 element,
                 ClassKind.CLASS,
                 Names.defrac_compiler_macro_Macro,
@@ -187,7 +169,7 @@ public final class MacroAnnotator implements Annotator {
             final PsiMethod thatMethod = (PsiMethod)result;
 
             if(arity == thatMethod.getParameterList().getParametersCount()) {
-              MacroValidator.annotate(element, holder, method, thatMethod);
+              // validated by the DefracExternalAnnotator
               found = true;
               break;
             } else {
@@ -236,7 +218,7 @@ public final class MacroAnnotator implements Annotator {
       DefracAnnotatorUtil.reportMoreGenericAnnotation(
           holder, annotation, method,
           Names.defrac_annotation_Macro,
-          DefracPlatform.byMacroAnnotation(checkNotNull(annotation.getQualifiedName())),
+          DefracPlatform.byMacroAnnotation(qualifiedName),
           /*isMultiPlatformClass=*/false);
     }
   }
@@ -19,7 +19,6 @@ package defrac.intellij.annotator;
 import com.intellij.codeInsight.daemon.quickFix.CreateClassOrPackageFix;
 import com.intellij.lang.annotation.Annotation;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.psi.*;
 import com.intellij.psi.util.ClassKind;
 import defrac.intellij.DefracBundle;
@@ -27,7 +26,6 @@ import defrac.intellij.DefracPlatform;
 import defrac.intellij.annotator.quickfix.RemoveFinalQuickFix;
 import defrac.intellij.facet.DefracFacet;
 import defrac.intellij.psi.InjectionClassReference;
-import defrac.intellij.psi.validation.MultiPlatformClassValidator;
 import defrac.intellij.util.Names;
 import org.jetbrains.annotations.NotNull;
 
@@ -40,35 +38,19 @@ import static com.intellij.psi.util.PsiTreeUtil.getParentOfType;
 import static com.intellij.psi.util.PsiUtil.mapElements;
 import static defrac.intellij.annotator.DefracAnnotatorUtil.reportMissingImplementations;
 import static defrac.intellij.annotator.DefracAnnotatorUtil.reportMoreGenericAnnotation;
-import static defrac.intellij.psi.DefracPsiUtil.isInjectAnnotation;
 
 /**
- *
+ * Checks the literal of an {@code @Inject} annotation
  */
-public final class MultiPlatformClassAnnotator implements Annotator {
-  public MultiPlatformClassAnnotator() {}
-
-  @Override
-  public void annotate(@NotNull final PsiElement element,
-                       @NotNull final AnnotationHolder holder) {
-    if(!(element instanceof PsiLiteralExpression)) {
-      return;
-    }
-
-    final DefracFacet facet = DefracFacet.getInstance(element);
-
-    if(facet == null || facet.isMacroLibrary()) {
-      return;
-    }
-
-    final PsiAnnotation annotation =
-        getParentOfType(element, PsiAnnotation.class, /*strict=*/false);
-
-    if(annotation == null || !isInjectAnnotation(annotation)) {
-      return;
-    }
-
-    final boolean isGeneric = Names.defrac_annotation_Inject.equals(annotation.getQualifiedName());
+final class MultiPlatformClassAnnotator {
+  MultiPlatformClassAnnotator() {}
+
+  void annotate(@NotNull final PsiLiteralExpression element,
+                @NotNull final AnnotationHolder holder,
+                @NotNull final DefracFacet facet,
+                @NotNull final PsiAnnotation annotation,
+                @NotNull final String qualifiedName) {
+    final boolean isGeneric = Names.defrac_annotation_Inject.equals(qualifiedName);
     final PsiClass injectorClass = getParentOfType(element, PsiClass.class, /*strict=*/false);
 
     if(injectorClass == null) {
@@ -131,7 +113,7 @@ public final class MultiPlatformClassAnnotator implements Annotator {
           final CreateClassOrPackageFix fix = DefracAnnotatorUtil.createCreateClassOrPackageFix(
               target,
               checkNotNull(DefracFacet.getInstance(injectorClass)).
-                  getMultiPlatformClassSearchScope(DefracPlatform.byInjectAnnotation(annotation.getQualifiedName())),
+                  getMultiPlatformClassSearchScope(DefracPlatform.byInjectAnnotation(qualifiedName)),
               element,
               ClassKind.CLASS,
               superClass == null ? null : checkNotNull(superClass.getQualifiedName()),
@@ -151,8 +133,6 @@ public final class MultiPlatformClassAnnotator implements Annotator {
               holder.createErrorAnnotation(element, DefracBundle.message("annotator.ambiguous", defracRef.getValue(), elementFacet.getPlatform().displayName));
             }
           }
-
-          MultiPlatformClassValidator.annotate(element, holder, injectorClass, injectionClass);
         }
       }
     }
@@ -169,7 +149,7 @@ public final class MultiPlatformClassAnnotator implements Annotator {
       reportMoreGenericAnnotation(
           holder, annotation, injectorClass,
           Names.defrac_annotation_Inject,
-          DefracPlatform.byInjectAnnotation(checkNotNull(annotation.getQualifiedName())),
+          DefracPlatform.byInjectAnnotation(qualifiedName),
           /*isMultiPlatformClass=*/true);
     }
   }
@@ -17,7 +17,6 @@
 package defrac.intellij.annotator;
 
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.psi.*;
 import defrac.intellij.DefracBundle;
 import defrac.intellij.annotator.quickfix.RemoveReadOnlyQuickFix;
@@ -26,21 +25,13 @@ import org.jetbrains.annotations.NotNull;
 import static defrac.intellij.psi.DefracPsiUtil.isReadOnly;
 
 /**
- *
+ * Checks that no {@code @ReadOnly} field is assigned
  */
-public final class ReadOnlyAnnotator implements Annotator {
-  public ReadOnlyAnnotator() {}
-
-  @Override
-  public void annotate(@NotNull final PsiElement element,
-                       @NotNull final AnnotationHolder holder) {
-    if(!(element instanceof PsiAssignmentExpression)) {
-      return;
-    }
-
-    final PsiAssignmentExpression assignmentExpression =
-        (PsiAssignmentExpression)element;
+final class ReadOnlyAnnotator {
+  ReadOnlyAnnotator() {}
 
+  void annotate(@NotNull final PsiAssignmentExpression assignmentExpression,
+                @NotNull final AnnotationHolder holder) {
     final PsiExpression lhs = assignmentExpression.getLExpression();
 
     if(!(lhs instanceof PsiReferenceExpression)) {
@@ -58,7 +49,7 @@ public final class ReadOnlyAnnotator implements Annotator {
 
     if(isReadOnly(field)) {
       holder.
-          createErrorAnnotation(element,
+          createErrorAnnotation(assignmentExpression,
               DefracBundle.message("annotator.readWrite.readOnly", field.getName())).
           registerFix(new RemoveReadOnlyQuickFix(field));
     }
@@ -17,63 +17,90 @@
 package defrac.intellij.annotator;
 
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.psi.*;
 import com.intellij.psi.util.PsiUtil;
 import defrac.intellij.DefracBundle;
 import defrac.intellij.DefracPlatform;
 import defrac.intellij.config.DefracConfigOracle;
 import defrac.intellij.facet.DefracFacet;
+import defrac.intellij.psi.UnsupportedMemberNames;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import static defrac.intellij.psi.DefracPsiUtil.isUnsupported;
 
 /**
- *
+ * Checks declarations of and references to members that are unsupported on a platform
  */
-public final class UnsupportedAnnotator implements Annotator {
-  public UnsupportedAnnotator() {}
+final class UnsupportedAnnotator {
+  UnsupportedAnnotator() {}
+
+  void annotateClass(@NotNull final PsiClass klass,
+                     @NotNull final AnnotationHolder holder,
+                     @NotNull final DefracFacet facet) {
+    annotateDeclaration(klass, klass, holder, facet.getPlatform());
+  }
 
-  @Override
-  public void annotate(@NotNull final PsiElement element,
-                       @NotNull final AnnotationHolder holder) {
-    final DefracFacet facet = DefracFacet.getInstance(element);
+  void annotateMethod(@NotNull final PsiMethod method,
+                      @NotNull final AnnotationHolder holder,
+                      @NotNull final DefracFacet facet) {
+    final DefracPlatform platform = facet.getPlatform();
+
+    if(method.isConstructor()) {
+      annotateDeclaration(method, method.getContainingClass(), holder, platform);
+    } else if(isUnsupported(method, platform)) {
+      holder.
+          createErrorAnnotation(method, DefracBundle.message("annotator.unsupported.method"));
+    }
+  }
 
-    if(facet == null) {
+  void annotateReference(@NotNull final PsiJavaCodeReferenceElement element,
+                         @NotNull final AnnotationHolder holder,
+                         @NotNull final DefracFacet facet) {
+    if(!mayBeUnsupported(element, element.getReferenceName(), facet)) {
       return;
     }
 
-    final DefracPlatform platform  = facet.getPlatform();
+    if(element instanceof PsiReferenceExpression) {
+      final PsiElement referencedElement = ((PsiReferenceExpression)element).resolve();
+      annotateReferencedElement(element, holder, facet, referencedElement);
+    } else {
+      final JavaResolveResult[] results = element.multiResolve(false);
+      for(final PsiElement resolvedElement : PsiUtil.mapElements(results)) {
+        annotateReferencedElement(element, holder, facet, resolvedElement);
+      }
+    }
+  }
+
+  private boolean mayBeUnsupported(@NotNull final PsiElement element,
+                                   @Nullable final String referenceName,
+                                   @NotNull final DefracFacet facet) {
+    // checking the names is much cheaper than resolving the reference
+    final DefracPlatform platform = facet.getPlatform();
 
-   if(element instanceof PsiClass) {
-      annotateClass(element, (PsiClass)element, holder, platform);
-    } else if(element instanceof PsiMethod) {
-      final PsiMethod method = (PsiMethod)element;
+    if(!platform.isGeneric()) {
+      return UnsupportedMemberNames.mayBeUnsupported(element.getProject(), referenceName, platform);
+    }
 
-      if(method.isConstructor()) {
-        annotateClass(element, method.getContainingClass(), holder, platform);
-      } else if(isUnsupported(method, platform)) {
-        holder.
-            createErrorAnnotation(element, DefracBundle.message("annotator.unsupported.method"));
-      }
-    } else if(element instanceof PsiReferenceExpression) {
-      final PsiReferenceExpression referenceExpression = (PsiReferenceExpression)element;
-      final PsiElement referencedElement = referenceExpression.resolve();
-      annotateReference(element, holder, facet, referencedElement);
-    } else if(element instanceof PsiJavaCodeReferenceElement) {
-      final PsiJavaCodeReferenceElement referenceElement = (PsiJavaCodeReferenceElement)element;
-      final JavaResolveResult[] results = referenceElement.multiResolve(false);
-      for(final PsiElement resolvedElement : PsiUtil.mapElements(results)) {
-        annotateReference(element, holder, facet, resolvedElement);
+    final DefracConfigOracle config = facet.getConfigOracle();
+
+    if(config == null) {
+      return false;
+    }
+
+    for(final DefracPlatform targetPlatform : config.getTargets()) {
+      if(UnsupportedMemberNames.mayBeUnsupported(element.getProject(), referenceName, targetPlatform)) {
+        return true;
       }
     }
+
+    return false;
   }
 
-  private void annotateClass(@NotNull final PsiElement element,
-                             @Nullable final PsiClass klass,
-                             @NotNull final AnnotationHolder holder,
-                             @NotNull final DefracPlatform platform) {
+  private void annotateDeclaration(@NotNull final PsiElement element,
+                                   @Nullable final PsiClass klass,
+                                   @NotNull final AnnotationHolder holder,
+                                   @NotNull final DefracPlatform platform) {
     if(klass == null) {
       return;
     }
@@ -85,10 +112,10 @@ public final class UnsupportedAnnotator implements Annotator {
     }
   }
 
-  private void annotateReference(@NotNull final PsiElement element,
-                                 @NotNull final AnnotationHolder holder,
-                                 @NotNull final DefracFacet facet,
-                                 @Nullable final PsiElement referencedElement) {
+  private void annotateReferencedElement(@NotNull final PsiElement element,
+                                         @NotNull final AnnotationHolder holder,
+                                         @NotNull final DefracFacet facet,
+                                         @Nullable final PsiElement referencedElement) {
     if(!(referencedElement instanceof PsiModifierListOwner)) {
       return;
     }
@@ -17,7 +17,6 @@
 package defrac.intellij.annotator;
 
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.psi.*;
 import defrac.intellij.DefracBundle;
 import defrac.intellij.annotator.quickfix.RemoveWriteOnlyQuickFix;
@@ -26,28 +25,22 @@ import org.jetbrains.annotations.NotNull;
 import static defrac.intellij.psi.DefracPsiUtil.isWriteOnly;
 
 /**
- *
+ * Checks that no {@code @WriteOnly} field is read
  */
-public final class WriteOnlyAnnotator implements Annotator {
-  public WriteOnlyAnnotator() {}
-
-  @Override
-  public void annotate(@NotNull final PsiElement element,
-                       @NotNull final AnnotationHolder holder) {
-    if(!(element instanceof PsiReferenceExpression)) {
-      return;
-    }
+final class WriteOnlyAnnotator {
+  WriteOnlyAnnotator() {}
 
-    if(element.getParent() instanceof PsiAssignmentExpression) {
+  void annotate(@NotNull final PsiReferenceExpression referenceExpression,
+                @NotNull final AnnotationHolder holder) {
+    if(referenceExpression.getParent() instanceof PsiAssignmentExpression) {
       final PsiAssignmentExpression assignmentExpression =
-          (PsiAssignmentExpression)element.getParent();
+          (PsiAssignmentExpression)referenceExpression.getParent();
 
       if(assignmentExpression.getParent() instanceof PsiExpressionStatement) {
         return;
       }
     }
 
-    final PsiReferenceExpression referenceExpression = (PsiReferenceExpression)element;
     final PsiElement referencedElement = referenceExpression.resolve();
 
     if(!(referencedElement instanceof PsiField)) {
@@ -58,7 +51,7 @@ public final class WriteOnlyAnnotator implements Annotator {
 
     if(isWriteOnly(field)) {
       holder.
-          createErrorAnnotation(element,
+          createErrorAnnotation(referenceExpression,
               DefracBundle.message("annotator.readWrite.writeOnly", field.getName())).
           registerFix(new RemoveWriteOnlyQuickFix(field));
     }
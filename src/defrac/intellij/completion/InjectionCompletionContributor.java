@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.completion;
+
+import com.intellij.codeInsight.completion.CompletionContributor;
+import com.intellij.codeInsight.completion.CompletionParameters;
+import com.intellij.codeInsight.completion.CompletionResultSet;
+import com.intellij.codeInsight.completion.CompletionType;
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiLiteralExpression;
+import com.intellij.psi.PsiReference;
+import com.intellij.util.Processor;
+import defrac.intellij.psi.InjectionClassReference;
+import org.jetbrains.annotations.NotNull;
+
+import static com.intellij.psi.util.PsiTreeUtil.getParentOfType;
+
+/**
+ * Completes the qualified name of an injection
+ *
+ * <p>Eligible classes are added to the lookup as they are found.
+ */
+public final class InjectionCompletionContributor extends CompletionContributor {
+  public InjectionCompletionContributor() {}
+
+  @Override
+  public void fillCompletionVariants(@NotNull final CompletionParameters parameters,
+                                     @NotNull final CompletionResultSet result) {
+    if(parameters.getCompletionType() != CompletionType.BASIC) {
+      return;
+    }
+
+    final PsiLiteralExpression literal =
+        getParentOfType(parameters.getPosition(), PsiLiteralExpression.class, /*strict=*/false);
+
+    if(literal == null) {
+      return;
+    }
+
+    final int offsetInElement = parameters.getOffset() - literal.getTextRange().getStartOffset();
+
+    for(final PsiReference reference : literal.getReferences()) {
+      if(!(reference instanceof InjectionClassReference)) {
+        continue;
+      }
+
+      final TextRange range = reference.getRangeInElement();
+
+      if(offsetInElement < range.getStartOffset() || offsetInElement > range.getEndOffset()) {
+        continue;
+      }
+
+      // qualified names contain dots so the default prefix would be too short
+      final CompletionResultSet resultSet =
+          result.withPrefixMatcher(literal.getText().substring(range.getStartOffset(), offsetInElement));
+
+      ((InjectionClassReference)reference).processVariants(new Processor<LookupElement>() {
+        @Override
+        public boolean process(final LookupElement lookupElement) {
+          resultSet.addElement(lookupElement);
+          return true;
+        }
+      });
+    }
+  }
+}
@@ -19,19 +19,19 @@ package defrac.intellij.completion.ios;
 import com.intellij.codeInsight.completion.*;
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.openapi.util.Pair;
 import com.intellij.psi.*;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ProcessingContext;
 import com.siyeh.ig.psiutils.ImportUtils;
 import defrac.intellij.facet.DefracFacet;
+import defrac.intellij.psi.IntrinsicFieldTable;
 import defrac.intellij.util.Names;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import static com.google.common.base.Strings.isNullOrEmpty;
 import static defrac.intellij.psi.DefracPsiUtil.getValue;
-import static defrac.intellij.psi.DefracPsiUtil.intrinsicNameOf;
 
 /**
  *
@@ -52,15 +52,28 @@ public final class RepresentedByCompletionProvider extends CompletionProvider<Co
       return;
     }
 
+    // check the platform before resolving anything
+    final DefracFacet facet = DefracFacet.getInstance(methodCall);
+
+    if(facet == null || !facet.getPlatform().isIOS()) {
+      return;
+    }
+
+    // find argument index
+    final int argumentIndex = indexOfArgument(args, methodCall);
+    if(argumentIndex < 0) {
+      return;
+    }
+
     final PsiMethod method = methodCall.resolveMethod();
 
     if(method != null) {
-      contribute(args, resultSet, methodCall, method);
+      contribute(args, resultSet, argumentIndex, method);
     } else {
       final JavaResolveResult results[] = methodCall.getMethodExpression().multiResolve(true);
       for(final JavaResolveResult result : results) {
         if(result.getElement() instanceof PsiMethod) {
-          contribute(args, resultSet, methodCall, (PsiMethod)result.getElement());
+          contribute(args, resultSet, argumentIndex, (PsiMethod)result.getElement());
         }
       }
     }
@@ -68,22 +81,8 @@ public final class RepresentedByCompletionProvider extends CompletionProvider<Co
 
   private void contribute(@NotNull final CompletionParameters args,
                           @NotNull final CompletionResultSet resultSet,
-                          @NotNull final PsiMethodCallExpression methodCall,
+                          final int argumentIndex,
                           @NotNull final PsiMethod method) {
-
-    final DefracFacet facet = DefracFacet.getInstance(methodCall);
-
-    if(facet == null || !facet.getPlatform().isIOS()) {
-      return;
-    }
-
-
-    // find argument index
-    final int argumentIndex = indexOfArgument(args, methodCall);
-    if(argumentIndex < 0) {
-      return;
-    }
-
     // find annotation for argument index
     final PsiAnnotation representedBy = findAnnotationAt(method, argumentIndex);
     if(representedBy == null) {
@@ -107,6 +106,7 @@ public final class RepresentedByCompletionProvider extends CompletionProvider<Co
           continue;
         }
 
+        // @RepresentedBy may name classes of the project as well
         final JavaPsiFacade jpf = JavaPsiFacade.getInstance(value.getProject());
         final PsiClass klass = jpf.findClass(className, GlobalSearchScope.allScope(value.getProject()));
 
@@ -123,12 +123,9 @@ public final class RepresentedByCompletionProvider extends CompletionProvider<Co
                            @NotNull final InsertHandler<LookupElement> insertHandler,
                            @NotNull final String className,
                            @NotNull final PsiClass klass) {
-    for(final PsiField field : klass.getAllFields()) {
-      final String intrinsicName = intrinsicNameOf(field);
-
-      if(isNullOrEmpty(intrinsicName)) {
-        continue;
-      }
+    for(final Pair<PsiField, String> intrinsicField : IntrinsicFieldTable.getInstance(klass).getFields()) {
+      final PsiField field = intrinsicField.first;
+      final String intrinsicName = intrinsicField.second;
 
       final LookupElementBuilder element =
           JavaLookupElementBuilder.
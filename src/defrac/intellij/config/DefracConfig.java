@@ -19,6 +19,7 @@ package defrac.intellij.config;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.io.Closeables;
+import com.intellij.json.psi.JsonFile;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -37,6 +38,17 @@ import java.io.*;
 public final class DefracConfig extends DefracConfigBase {
   @NotNull
   public static DefracConfig fromJson(@NotNull final PsiFile file) throws IOException {
+    if(file instanceof JsonFile) {
+      // prefer the PSI since the settings are most likely open in an editor
+      final JSONObject json = PsiConfigCache.get((JsonFile)file);
+
+      if(json == null) {
+        throw new IOException("Invalid settings: " + file.getName());
+      }
+
+      return new DefracConfig(json);
+    }
+
     return new DefracConfig(ConfigCache.getInstance().get(file.getVirtualFile()));
   }
 
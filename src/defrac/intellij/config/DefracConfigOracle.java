@@ -117,47 +117,110 @@ public final class DefracConfigOracle {
   private final DefracPlatform platform;
 
   @NotNull
-  private final DefracConfig localConfig;
+  private final JSONObject localJson;
 
   @NotNull
-  private final DefracConfig globalConfig;
+  private final JSONObject globalJson;
+
+  // The oracle is immutable so we compile all settings we know about once
+  // when it is created. Arrays are shared between callers and must not be
+  // modified.
+
+  private final boolean debug;
+
+  @NotNull
+  private final String[] resources;
+
+  @NotNull
+  private final DefracPlatform[] targets;
+
+  @NotNull
+  private final String packageName;
+
+  @NotNull
+  private final String name;
+
+  @NotNull
+  private final String main;
+
+  @NotNull
+  private final String browser;
+
+  @NotNull
+  private final String html;
+
+  @NotNull
+  private final String xcodeBuild;
+
+  @NotNull
+  private final String xcodeProject;
 
   private DefracConfigOracle(@NotNull final DefracPlatform platform,
                              @NotNull final DefracConfig localConfig,
                              @NotNull final DefracConfig globalConfig) {
     this.platform = platform;
-    this.localConfig = localConfig;
-    this.globalConfig = globalConfig;
+    this.localJson = localConfig.json;
+    this.globalJson = globalConfig.json;
+
+    this.debug = lookupBoolean("debug");
+    this.resources = lookupStringArray("resources");
+    this.targets = lookupPlatformArray("targets");
+    this.packageName = lookupString("package");
+    this.name = lookupString("name");
+    this.main = lookupString("main");
+    this.browser = lookupString("browser");
+    this.html = lookupString("html", "index.html");
+    this.xcodeBuild = lookupString("xcode/build");
+    this.xcodeProject = lookupString("xcode/project");
+  }
+
+  /**
+   * Whether or not this oracle has been compiled from the given settings
+   *
+   * <p>The settings are compared by identity which is sufficient since the
+   * settings caches hand out the same object until a file changes.
+   *
+   * @param platform The platform of the oracle
+   * @param localConfig The local settings
+   * @param globalConfig The global settings
+   * @return {@literal true} if the oracle is up-to-date; {@literal false} otherwise
+   */
+  public boolean isCompiledFrom(@NotNull final DefracPlatform platform,
+                                @NotNull final DefracConfig localConfig,
+                                @NotNull final DefracConfig globalConfig) {
+    return this.platform == platform
+        && this.localJson == localConfig.json
+        && this.globalJson == globalConfig.json;
   }
 
   public boolean isDebug() {
-    return lookupBoolean("debug");
+    return debug;
   }
 
   @NotNull
   public String[] getResources() {
-    return lookupStringArray("resources");
+    return resources;
   }
 
   @NotNull
   public DefracPlatform[] getTargets() {
-    return lookupPlatformArray("targets");
+    return targets;
   }
 
   @NotNull
   public String getPackage() {
-    return lookupString("package");
+    return packageName;
   }
 
   @NotNull
   public String getName() {
-    return lookupString("name");
+    return name;
   }
 
   @Nullable
   public VirtualFile getXCodeProject(@NotNull final DefracFacet facet) {
-    final String build = lookupString("xcode/build");
-    final String project = lookupString("xcode/project");
+    final String build = xcodeBuild;
+    final String project = xcodeProject;
 
     VirtualFile result = null;
 
@@ -177,7 +240,7 @@ public final class DefracConfigOracle {
   }
 
   public VirtualFile getIndexHtml(@NotNull final DefracFacet facet) {
-    final String html = lookupString("html", "index.html");
+    final String html = this.html;
 
     if(!isNullOrEmpty(html)) {
       return facet.findFileRelativeToSettings("target/web/"+html);
@@ -207,12 +270,14 @@ public final class DefracConfigOracle {
     return result;
   }
 
+  @NotNull
   public String getMain() {
-    return lookupString("main");
+    return main;
   }
 
+  @NotNull
   public String getBrowser() {
-    return lookupString("browser");
+    return browser;
   }
 
   @NotNull
@@ -246,13 +311,13 @@ public final class DefracConfigOracle {
       @NotNull final B defaultValue,
       @NotNull final Function<JSON, A> flattener) {
     try {
-      A firstTry = extract(fieldPath, typeOfValue, flattener, localConfig.json);
+      A firstTry = extract(fieldPath, typeOfValue, flattener, localJson);
 
       if(firstTry != null) {
         return firstTry;
       }
 
-      A secondTry = extract(fieldPath, typeOfValue, flattener, globalConfig.json);
+      A secondTry = extract(fieldPath, typeOfValue, flattener, globalJson);
 
       if(secondTry != null) {
         return secondTry;
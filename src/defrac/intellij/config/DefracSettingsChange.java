@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.config;
+
+import com.google.common.base.Objects;
+import defrac.intellij.DefracPlatform;
+import defrac.json.JSON;
+import defrac.json.JSONObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ *
+ */
+public enum DefracSettingsChange {
+  NAME("name"),
+  PACKAGE("package"),
+  MAIN("main"),
+  TARGETS("targets"),
+  RESOURCES("resources"),
+  OTHER(null);
+
+  @Nullable
+  private final String key;
+
+  DefracSettingsChange(@Nullable final String key) {
+    this.key = key;
+  }
+
+  /**
+   * Computes the semantic difference of two versions of the same settings
+   *
+   * <p>Keys are compared for the generic and all platform specific sections.
+   * Any difference that doesn't affect a known key is reported as {@link #OTHER}.
+   *
+   * @param before The previous settings; {@literal null} if unknown
+   * @param after The current settings
+   * @return The set of changes; empty if both settings are equal
+   */
+  @NotNull
+  public static Set<DefracSettingsChange> diff(@Nullable final DefracConfig before,
+                                               @NotNull final DefracConfig after) {
+    final EnumSet<DefracSettingsChange> result = EnumSet.noneOf(DefracSettingsChange.class);
+
+    if(before == null) {
+      result.addAll(EnumSet.allOf(DefracSettingsChange.class));
+      return result;
+    }
+
+    if(before.json == after.json) {
+      return result;
+    }
+
+    diff(before.json, after.json, result);
+
+    for(final DefracPlatform platform : DefracPlatform.values()) {
+      if(platform.isGeneric()) {
+        continue;
+      }
+
+      diff(before.json.optObject(platform.name), after.json.optObject(platform.name), result);
+    }
+
+    if(result.isEmpty() && !before.json.equals(after.json)) {
+      result.add(OTHER);
+    }
+
+    return result;
+  }
+
+  private static void diff(@NotNull final JSONObject before,
+                           @NotNull final JSONObject after,
+                           @NotNull final Set<DefracSettingsChange> result) {
+    for(final DefracSettingsChange change : values()) {
+      final String key = change.key;
+
+      if(key == null) {
+        continue;
+      }
+
+      // parsed values compare structurally
+      if(!Objects.equal(valueOf(before, key), valueOf(after, key))) {
+        result.add(change);
+      }
+    }
+  }
+
+  @Nullable
+  private static JSON valueOf(@NotNull final JSONObject json, @NotNull final String key) {
+    return json.contains(key) ? json.get(key) : null;
+  }
+}
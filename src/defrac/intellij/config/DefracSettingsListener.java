@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.config;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.messages.Topic;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+
+/**
+ * Receives semantic changes of defrac settings files
+ *
+ * <p>Listeners are notified only if the effective value of a setting changed,
+ * edits to whitespace or formatting do not produce any event.
+ */
+public interface DefracSettingsListener {
+  @NotNull
+  Topic<DefracSettingsListener> TOPIC = Topic.create("defrac settings", DefracSettingsListener.class);
+
+  void settingsChanged(@NotNull final VirtualFile settingsFile,
+                       @NotNull final Set<DefracSettingsChange> changes);
+}
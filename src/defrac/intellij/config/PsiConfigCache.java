@@ -0,0 +1,157 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.config;
+
+import com.google.common.collect.Maps;
+import com.intellij.json.psi.JsonFile;
+import com.intellij.json.psi.JsonObject;
+import com.intellij.json.psi.JsonProperty;
+import com.intellij.json.psi.JsonValue;
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.UserDataHolderEx;
+import com.intellij.psi.impl.source.tree.CompositeElement;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import defrac.json.JSON;
+import defrac.json.JSONObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Settings model derived from the JSON PSI of a settings file
+ *
+ * <p>The model is cached on the file and recomputed when the PSI changes. Each
+ * top-level property is converted on its own and reused as long as the same
+ * property element is unmodified so that editing a single property doesn't
+ * reparse the whole file. The file on disk is never read.
+ */
+final class PsiConfigCache {
+  @NotNull
+  private static final Key<CachedValue<JSONObject>> CONFIG = Key.create("defrac.config");
+
+  @Nullable
+  public static JSONObject get(@NotNull final JsonFile file) {
+    CachedValue<JSONObject> cachedValue = file.getUserData(CONFIG);
+
+    if(cachedValue == null) {
+      cachedValue = ((UserDataHolderEx)file).putUserDataIfAbsent(CONFIG,
+          CachedValuesManager.getManager(file.getProject()).createCachedValue(new ConfigProvider(file), /*trackValue=*/false));
+    }
+
+    return cachedValue.getValue();
+  }
+
+  private static final class ConfigProvider implements CachedValueProvider<JSONObject> {
+    @NotNull
+    private final JsonFile file;
+
+    // the properties of the last computation
+    @NotNull
+    private volatile Map<JsonProperty, PropertyValue> properties = Collections.emptyMap();
+
+    ConfigProvider(@NotNull final JsonFile file) {
+      this.file = file;
+    }
+
+    @Nullable
+    @Override
+    public Result<JSONObject> compute() {
+      return Result.create(build(), file);
+    }
+
+    @Nullable
+    private JSONObject build() {
+      final JsonValue topLevelValue = file.getTopLevelValue();
+
+      if(!(topLevelValue instanceof JsonObject)) {
+        return null;
+      }
+
+      // unchanged properties keep their PSI across reparses, any change
+      // within a property bumps the modification count of its node
+      final Map<JsonProperty, PropertyValue> previousProperties = this.properties;
+      final Map<JsonProperty, PropertyValue> properties = Maps.newIdentityHashMap();
+      final JSONObject result = new JSONObject();
+
+      for(final JsonProperty property : ((JsonObject)topLevelValue).getPropertyList()) {
+        final int modificationCount = getModificationCount(property);
+        PropertyValue propertyValue = previousProperties.get(property);
+
+        if(propertyValue == null || modificationCount < 0 || propertyValue.modificationCount != modificationCount) {
+          final JsonValue value = property.getValue();
+          final JSON json = value == null ? null : parse(value.getText());
+
+          if(json == null) {
+            continue;
+          }
+
+          propertyValue = new PropertyValue(property.getName(), json, modificationCount);
+        }
+
+        properties.put(property, propertyValue);
+        result.put(propertyValue.name, propertyValue.json);
+      }
+
+      this.properties = properties;
+
+      return result;
+    }
+
+    private static int getModificationCount(@NotNull final JsonProperty property) {
+      final ASTNode node = property.getNode();
+
+      // -1 if unknown, the property is parsed again
+      return node instanceof CompositeElement ? ((CompositeElement)node).getModificationCount() : -1;
+    }
+  }
+
+  private static final class PropertyValue {
+    @NotNull
+    final String name;
+
+    @NotNull
+    final JSON json;
+
+    final int modificationCount;
+
+    PropertyValue(@NotNull final String name,
+                  @NotNull final JSON json,
+                  final int modificationCount) {
+      this.name = name;
+      this.json = json;
+      this.modificationCount = modificationCount;
+    }
+  }
+
+  @Nullable
+  private static JSON parse(@NotNull final String text) {
+    try {
+      return JSON.parse(new StringReader(text));
+    } catch(final Exception exception) {
+      // The user is most likely still typing
+      return null;
+    }
+  }
+
+  private PsiConfigCache() {}
+}
@@ -16,6 +16,7 @@
 
 package defrac.intellij.facet;
 
+import com.google.common.collect.Lists;
 import com.intellij.facet.Facet;
 import com.intellij.facet.FacetManager;
 import com.intellij.facet.FacetTypeId;
@@ -25,10 +26,12 @@ import com.intellij.openapi.actionSystem.DataContext;
 import com.intellij.openapi.actionSystem.LangDataKeys;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.module.Module;
-import com.intellij.openapi.module.ModuleManager;
 import com.intellij.openapi.module.ModuleUtil;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.ThrowableComputable;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VfsUtilCore;
@@ -38,6 +41,9 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.util.xml.ConvertContext;
 import com.intellij.util.xml.DomElement;
 import defrac.intellij.DefracPlatform;
@@ -53,7 +59,12 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 
 /**
@@ -67,6 +78,14 @@ public final class DefracFacet extends Facet<DefracFacetConfiguration> {
   @NotNull
   public static final FacetTypeId<DefracFacet> ID = new FacetTypeId<DefracFacet>(DEBUG_NAME);
 
+  @NotNull
+  private static final Map<DefracPlatform, Key<CachedValue<GlobalSearchScope>>> MULTI_PLATFORM_CLASS_SCOPE_KEYS =
+      createScopeKeys("defrac.scope.multiPlatformClass.");
+
+  @NotNull
+  private static final Map<DefracPlatform, Key<CachedValue<GlobalSearchScope>>> MACRO_SCOPE_KEYS =
+      createScopeKeys("defrac.scope.macro.");
+
   @NotNull
   public static DefracFacetType getFacetType() {
     return (DefracFacetType) FacetTypeRegistry.getInstance().findFacetType(ID);
@@ -110,6 +129,46 @@ public final class DefracFacet extends Facet<DefracFacetConfiguration> {
       return null;
     }
 
+    if(!DefracModuleRegistry.getInstance(file.getProject()).hasDefracModules()) {
+      // Fast path: no file can belong to a defrac module
+      return null;
+    }
+
+    // Copies used for completion and the like share the facet of their original
+    final PsiFile originalFile = file.getOriginalFile();
+    final VirtualFile virtualFile = originalFile.getVirtualFile();
+
+    if(virtualFile == null) {
+      return findInstance(originalFile);
+    }
+
+    final ProjectFileIndex fileIndex = ProjectRootManager.getInstance(file.getProject()).getFileIndex();
+    final FacetHandle handle = CachedValuesManager.getCachedValue(originalFile, new CachedValueProvider<FacetHandle>() {
+      @Nullable
+      @Override
+      public Result<FacetHandle> compute() {
+        final Project project = originalFile.getProject();
+        final ProjectRootManager rootManager = ProjectRootManager.getInstance(project);
+        final VirtualFile currentFile = originalFile.getVirtualFile();
+
+        return Result.create(
+            new FacetHandle(
+                findInstance(originalFile),
+                currentFile == null ? null : rootManager.getFileIndex().getModuleForFile(currentFile)),
+            rootManager,
+            DefracFacetModificationTracker.getInstance(project)
+        );
+      }
+    });
+
+    // A moved file keeps its PsiFile but may belong to a different module
+    return handle.module == fileIndex.getModuleForFile(virtualFile)
+        ? handle.facet
+        : findInstance(originalFile);
+  }
+
+  @Nullable
+  private static DefracFacet findInstance(@NotNull final PsiFile file) {
     Module module = ModuleUtil.findModuleForPsiElement(file);
 
     if(module == null) {
@@ -134,6 +193,9 @@ public final class DefracFacet extends Facet<DefracFacetConfiguration> {
     return getInstance(module);
   }
 
+  @Nullable
+  private volatile DefracConfigOracle configOracle;
+
   public DefracFacet(@NotNull final Module module,
                      @NotNull final String name,
                      @NotNull final DefracFacetConfiguration configuration) {
@@ -221,7 +283,16 @@ public final class DefracFacet extends Facet<DefracFacetConfiguration> {
             return null;
           }
 
-          return DefracConfigOracle.join(getPlatform(), localConfig, globalConfig);
+          final DefracPlatform platform = getPlatform();
+          final DefracConfigOracle cachedOracle = configOracle;
+
+          if(cachedOracle != null && cachedOracle.isCompiledFrom(platform, localConfig, globalConfig)) {
+            return cachedOracle;
+          }
+
+          final DefracConfigOracle oracle = DefracConfigOracle.join(platform, localConfig, globalConfig);
+          configOracle = oracle;
+          return oracle;
         }
       });
     } catch(final Throwable t) {
@@ -287,44 +358,35 @@ public final class DefracFacet extends Facet<DefracFacetConfiguration> {
 
   @NotNull
   public GlobalSearchScope getMultiPlatformClassSearchScope(@Nullable final DefracPlatform targetPlatform) {
+    return getCachedScope(MULTI_PLATFORM_CLASS_SCOPE_KEYS, targetPlatform, new CachedValueProvider<GlobalSearchScope>() {
+      @Nullable
+      @Override
+      public Result<GlobalSearchScope> compute() {
+        return createScopeResult(computeMultiPlatformClassSearchScope(targetPlatform));
+      }
+    });
+  }
+
+  @NotNull
+  private GlobalSearchScope computeMultiPlatformClassSearchScope(@Nullable final DefracPlatform targetPlatform) {
     // Search only in non-macro-library modules that match the platform of the current
     // module. If the current module is generic, we search in all eligible modules
     final Module thisModule = getModule();
-    final Module[] modules = ModuleManager.getInstance(thisModule.getProject()).getModules();
-    GlobalSearchScope scope = GlobalSearchScope.EMPTY_SCOPE;
-
-    for(final Module thatModule : modules) {
-      final DefracFacet that = DefracFacet.getInstance(thatModule);
-      final GlobalSearchScope moduleScope;
-
-      if(thisModule == thatModule) {
-        // It's a me, Modulo!
-        moduleScope = GlobalSearchScope.moduleWithDependenciesAndLibrariesScope(thatModule, /*includeTests=*/false);
-      } else if(that == null) {
-        // Not a defrac module, no need to exclude though
-        moduleScope = GlobalSearchScope.moduleWithDependenciesAndLibrariesScope(thatModule, /*includeTests=*/false);
-      } else {
-        assert this != that;
-
-        if(that.isMacroLibrary()) {
-          continue;
-        }
+    final Project project = thisModule.getProject();
+    final DefracModuleRegistry registry = DefracModuleRegistry.getInstance(project);
+    final List<Module> scopeModules = Lists.newArrayList();
 
-        if(!this.getPlatform().isGeneric() && that.getPlatform() != this.getPlatform()) {
-          continue;
-        }
+    // It's a me, Modulo!
+    scopeModules.add(thisModule);
 
-        if(targetPlatform != null && !targetPlatform.isGeneric() && this.getPlatform().isGeneric() && that.getPlatform() != targetPlatform) {
-          continue;
-        }
-
-        moduleScope = GlobalSearchScope.moduleWithDependenciesAndLibrariesScope(thatModule, /*includeTests=*/false);
-      }
+    // Not a defrac module, no need to exclude though
+    Collections.addAll(scopeModules, registry.getNonDefracModules());
 
-      scope = scope.uniteWith(moduleScope);
+    for(final DefracPlatform platform : getScopePlatforms(targetPlatform)) {
+      Collections.addAll(scopeModules, registry.getSourceModules(platform));
     }
 
-    return scope;
+    return DefracModuleSetScope.modulesWithDependenciesAndLibraries(project, scopeModules);
   }
 
   @NotNull
@@ -334,40 +396,100 @@ public final class DefracFacet extends Facet<DefracFacetConfiguration> {
 
   @NotNull
   public GlobalSearchScope getMacroSearchScope(@Nullable final DefracPlatform targetPlatform) {
+    return getCachedScope(MACRO_SCOPE_KEYS, targetPlatform, new CachedValueProvider<GlobalSearchScope>() {
+      @Nullable
+      @Override
+      public Result<GlobalSearchScope> compute() {
+        return createScopeResult(computeMacroSearchScope(targetPlatform));
+      }
+    });
+  }
+
+  @NotNull
+  private GlobalSearchScope computeMacroSearchScope(@Nullable final DefracPlatform targetPlatform) {
     // Search only in macro-library modules that match the platform of the current
     // module. If the current module is generic, we search in all macro modules
-    final Module[] modules = ModuleManager.getInstance(getModule().getProject()).getModules();
-    GlobalSearchScope scope = GlobalSearchScope.EMPTY_SCOPE;
+    final Module thisModule = getModule();
+    final Project project = thisModule.getProject();
+    final DefracModuleRegistry registry = DefracModuleRegistry.getInstance(project);
+    final List<Module> scopeModules = Lists.newArrayList();
+
+    for(final DefracPlatform platform : getScopePlatforms(targetPlatform)) {
+      for(final Module module : registry.getMacroModules(platform)) {
+        if(module != thisModule) {
+          scopeModules.add(module);
+        }
+      }
+    }
 
-    for(final Module module : modules) {
-      final DefracFacet that = DefracFacet.getInstance(module);
+    return DefracModuleSetScope.moduleContent(project, scopeModules);
+  }
 
-      if(that == null) {
-        continue;
-      }
+  @NotNull
+  private DefracPlatform[] getScopePlatforms(@Nullable final DefracPlatform targetPlatform) {
+    // A platform specific module sees only its own platform, a generic module
+    // sees the target platform or all platforms if there is no specific target
+    if(!getPlatform().isGeneric()) {
+      return new DefracPlatform[] { getPlatform() };
+    }
 
-      if(this == that) {
-        continue;
-      }
+    if(targetPlatform != null && !targetPlatform.isGeneric()) {
+      return new DefracPlatform[] { targetPlatform };
+    }
 
-      if(!that.isMacroLibrary()) {
-        continue;
-      }
+    return DefracPlatform.values();
+  }
 
-      if(!this.getPlatform().isGeneric() && that.getPlatform() != this.getPlatform()) {
-        continue;
-      }
+  @NotNull
+  private GlobalSearchScope getCachedScope(@NotNull final Map<DefracPlatform, Key<CachedValue<GlobalSearchScope>>> keys,
+                                           @Nullable final DefracPlatform targetPlatform,
+                                           @NotNull final CachedValueProvider<GlobalSearchScope> provider) {
+    // A null target platform and the generic platform yield the same scope
+    final Key<CachedValue<GlobalSearchScope>> key =
+        checkNotNull(keys.get(targetPlatform == null ? DefracPlatform.GENERIC : targetPlatform));
+
+    return CachedValuesManager.
+        getManager(getModule().getProject()).
+        getCachedValue(this, key, provider, /*trackValue=*/false);
+  }
 
-      if(targetPlatform != null && !targetPlatform.isGeneric() && this.getPlatform().isGeneric() && that.getPlatform() != targetPlatform) {
-        continue;
-      }
+  @NotNull
+  private CachedValueProvider.Result<GlobalSearchScope> createScopeResult(@NotNull final GlobalSearchScope scope) {
+    // Scopes depend on the modules of the project, their roots and the
+    // platform of each defrac facet. The module of a file is looked up
+    // whenever a scope is queried so moved files need no invalidation.
+    final Project project = getModule().getProject();
+
+    return CachedValueProvider.Result.create(
+        scope,
+        ProjectRootManager.getInstance(project),
+        DefracFacetModificationTracker.getInstance(project));
+  }
 
-      final GlobalSearchScope moduleScope =
-          GlobalSearchScope.moduleScope(module);
+  @NotNull
+  private static Map<DefracPlatform, Key<CachedValue<GlobalSearchScope>>> createScopeKeys(@NotNull final String prefix) {
+    final EnumMap<DefracPlatform, Key<CachedValue<GlobalSearchScope>>> keys =
+        new EnumMap<DefracPlatform, Key<CachedValue<GlobalSearchScope>>>(DefracPlatform.class);
 
-      scope = scope.uniteWith(moduleScope);
+    for(final DefracPlatform platform : DefracPlatform.values()) {
+      keys.put(platform, Key.<CachedValue<GlobalSearchScope>>create(prefix + platform.name));
     }
 
-    return scope;
+    return Collections.unmodifiableMap(keys);
+  }
+
+  private static final class FacetHandle {
+    @Nullable
+    final DefracFacet facet;
+
+    // the module of the file when the facet was found
+    @Nullable
+    final Module module;
+
+    FacetHandle(@Nullable final DefracFacet facet,
+                @Nullable final Module module) {
+      this.facet = facet;
+      this.module = module;
+    }
   }
 }
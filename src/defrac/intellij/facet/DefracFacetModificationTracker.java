@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.facet;
+
+import com.intellij.facet.ProjectWideFacetAdapter;
+import com.intellij.facet.ProjectWideFacetListenersRegistry;
+import com.intellij.openapi.components.AbstractProjectComponent;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Tracks additions, removals and configuration changes of defrac facets
+ *
+ * <p>Caches that depend on the platform or the macro-library flag of a facet
+ * must depend on this tracker in addition to the project roots.
+ */
+public final class DefracFacetModificationTracker extends AbstractProjectComponent implements ModificationTracker {
+  @NotNull
+  public static DefracFacetModificationTracker getInstance(@NotNull final Project project) {
+    return checkNotNull(project.getComponent(DefracFacetModificationTracker.class));
+  }
+
+  @NotNull
+  private final AtomicLong modificationCount = new AtomicLong();
+
+  public DefracFacetModificationTracker(@NotNull final Project project) {
+    super(project);
+  }
+
+  @Override
+  public void initComponent() {
+    ProjectWideFacetListenersRegistry.getInstance(myProject).registerListener(DefracFacet.ID, new ProjectWideFacetAdapter<DefracFacet>() {
+      @Override
+      public void facetAdded(final DefracFacet facet) {
+        incModificationCount();
+      }
+
+      @Override
+      public void facetRemoved(final DefracFacet facet) {
+        incModificationCount();
+      }
+
+      @Override
+      public void facetConfigurationChanged(final DefracFacet facet) {
+        incModificationCount();
+      }
+    }, myProject);
+  }
+
+  @Override
+  public long getModificationCount() {
+    return modificationCount.get();
+  }
+
+  public void incModificationCount() {
+    modificationCount.incrementAndGet();
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.facet;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.intellij.openapi.components.AbstractProjectComponent;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import defrac.intellij.DefracPlatform;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Registry of all modules of a project partitioned by defrac platform
+ *
+ * <p>The registry distinguishes between source modules and macro-library modules
+ * and links each defrac module to its settings file. It is rebuilt lazily once
+ * the project roots or the {@link DefracFacetModificationTracker} have changed.
+ */
+public final class DefracModuleRegistry extends AbstractProjectComponent {
+  @NotNull
+  public static DefracModuleRegistry getInstance(@NotNull final Project project) {
+    return checkNotNull(project.getComponent(DefracModuleRegistry.class));
+  }
+
+  @NotNull
+  private final Object lock = new Object();
+
+  @Nullable
+  private volatile Snapshot snapshot;
+
+  public DefracModuleRegistry(@NotNull final Project project) {
+    super(project);
+  }
+
+  /**
+   * Returns whether or not the project contains any defrac module
+   *
+   * @return {@code true} if there is at least one module with a defrac facet
+   */
+  public boolean hasDefracModules() {
+    return !getSnapshot().settingsFiles.isEmpty();
+  }
+
+  /**
+   * Returns all source modules of the given platform
+   *
+   * @param platform The platform
+   * @return The source modules; never modify this array
+   */
+  @NotNull
+  public Module[] getSourceModules(@NotNull final DefracPlatform platform) {
+    return checkNotNull(getSnapshot().sourceModules.get(platform));
+  }
+
+  /**
+   * Returns all macro-library modules of the given platform
+   *
+   * @param platform The platform
+   * @return The macro-library modules; never modify this array
+   */
+  @NotNull
+  public Module[] getMacroModules(@NotNull final DefracPlatform platform) {
+    return checkNotNull(getSnapshot().macroModules.get(platform));
+  }
+
+  /**
+   * Returns all modules without a defrac facet
+   *
+   * @return The modules; never modify this array
+   */
+  @NotNull
+  public Module[] getNonDefracModules() {
+    return getSnapshot().nonDefracModules;
+  }
+
+  /**
+   * Returns the settings file of a defrac module
+   *
+   * @param module The module
+   * @return The settings file or {@code null} if the module is not a defrac module
+   */
+  @Nullable
+  public File getSettingsFile(@NotNull final Module module) {
+    return getSnapshot().settingsFiles.get(module);
+  }
+
+  @NotNull
+  private Snapshot getSnapshot() {
+    // modules are only added or removed along with the project roots
+    final long rootsModificationCount = ProjectRootManager.getInstance(myProject).getModificationCount();
+    final long facetModificationCount = DefracFacetModificationTracker.getInstance(myProject).getModificationCount();
+    final Snapshot cached = snapshot;
+
+    if(cached != null && cached.isUpToDate(rootsModificationCount, facetModificationCount)) {
+      return cached;
+    }
+
+    synchronized(lock) {
+      final Snapshot current = snapshot;
+
+      if(current != null && current.isUpToDate(rootsModificationCount, facetModificationCount)) {
+        return current;
+      }
+
+      final Snapshot result = new Snapshot(
+          ModuleManager.getInstance(myProject).getModules(),
+          rootsModificationCount,
+          facetModificationCount);
+
+      snapshot = result;
+
+      return result;
+    }
+  }
+
+  private static final class Snapshot {
+    @NotNull
+    final Map<DefracPlatform, Module[]> sourceModules =
+        new EnumMap<DefracPlatform, Module[]>(DefracPlatform.class);
+
+    @NotNull
+    final Map<DefracPlatform, Module[]> macroModules =
+        new EnumMap<DefracPlatform, Module[]>(DefracPlatform.class);
+
+    @NotNull
+    final Map<Module, File> settingsFiles;
+
+    @NotNull
+    final Module[] nonDefracModules;
+
+    final long rootsModificationCount;
+
+    final long facetModificationCount;
+
+    Snapshot(@NotNull final Module[] modules,
+             final long rootsModificationCount,
+             final long facetModificationCount) {
+      this.rootsModificationCount = rootsModificationCount;
+      this.facetModificationCount = facetModificationCount;
+
+      final Map<DefracPlatform, List<Module>> sources = Maps.newEnumMap(DefracPlatform.class);
+      final Map<DefracPlatform, List<Module>> macros = Maps.newEnumMap(DefracPlatform.class);
+      final List<Module> others = Lists.newArrayList();
+
+      for(final DefracPlatform platform : DefracPlatform.values()) {
+        sources.put(platform, Lists.<Module>newArrayList());
+        macros.put(platform, Lists.<Module>newArrayList());
+      }
+
+      settingsFiles = new IdentityHashMap<Module, File>(modules.length);
+
+      for(final Module module : modules) {
+        final DefracFacet facet = DefracFacet.getInstance(module);
+
+        if(facet == null) {
+          others.add(module);
+          continue;
+        }
+
+        final Map<DefracPlatform, List<Module>> partition = facet.isMacroLibrary() ? macros : sources;
+        checkNotNull(partition.get(facet.getPlatform())).add(module);
+        settingsFiles.put(module, facet.getSettingsFile());
+      }
+
+      for(final DefracPlatform platform : DefracPlatform.values()) {
+        sourceModules.put(platform, toArray(sources.get(platform)));
+        macroModules.put(platform, toArray(macros.get(platform)));
+      }
+
+      nonDefracModules = toArray(others);
+    }
+
+    boolean isUpToDate(final long rootsModificationCount,
+                       final long facetModificationCount) {
+      return this.rootsModificationCount == rootsModificationCount
+          && this.facetModificationCount == facetModificationCount;
+    }
+
+    @NotNull
+    private static Module[] toArray(@NotNull final List<Module> modules) {
+      return modules.isEmpty() ? Module.EMPTY_ARRAY : modules.toArray(new Module[modules.size()]);
+    }
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.facet;
+
+import com.google.common.collect.Lists;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.*;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.Processor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A flat search scope for a set of modules
+ *
+ * <p>Uniting many module scopes with {@link GlobalSearchScope#uniteWith(GlobalSearchScope)}
+ * produces a nested chain that is traversed for each file. This scope resolves the
+ * module of a file once and tests it against a precomputed bit set instead, so
+ * {@link #contains(VirtualFile)} doesn't depend on the number of modules.
+ *
+ * <p>Instances capture the modules of the project at the time they are created
+ * and must be recreated when the project roots change.
+ */
+public final class DefracModuleSetScope extends GlobalSearchScope {
+  /**
+   * Creates the union of {@link GlobalSearchScope#moduleScope(Module)} for all given modules
+   */
+  @NotNull
+  public static DefracModuleSetScope moduleContent(@NotNull final Project project,
+                                                   @NotNull final Collection<Module> modules) {
+    return new DefracModuleSetScope(project, modules, /*includeLibraries=*/false, /*includeTests=*/true);
+  }
+
+  /**
+   * Creates the union of {@link GlobalSearchScope#moduleWithDependenciesAndLibrariesScope(Module, boolean)}
+   * without tests for all given modules
+   */
+  @NotNull
+  public static DefracModuleSetScope modulesWithDependenciesAndLibraries(@NotNull final Project project,
+                                                                         @NotNull final Collection<Module> modules) {
+    final List<Module> closure = Lists.newArrayList(modules);
+
+    for(final Module module : modules) {
+      OrderEnumerator.orderEntries(module).productionOnly().recursively().forEachModule(new Processor<Module>() {
+        @Override
+        public boolean process(final Module dependency) {
+          closure.add(dependency);
+          return true;
+        }
+      });
+    }
+
+    return new DefracModuleSetScope(project, closure, /*includeLibraries=*/true, /*includeTests=*/false);
+  }
+
+  @NotNull
+  private final ProjectFileIndex fileIndex;
+
+  @NotNull
+  private final Map<Module, Integer> moduleIndices;
+
+  @NotNull
+  private final BitSet moduleSet;
+
+  private final boolean includeLibraries;
+
+  private final boolean includeTests;
+
+  private DefracModuleSetScope(@NotNull final Project project,
+                               @NotNull final Collection<Module> modules,
+                               final boolean includeLibraries,
+                               final boolean includeTests) {
+    super(project);
+
+    final Module[] allModules = ModuleManager.getInstance(project).getModules();
+
+    this.fileIndex = ProjectRootManager.getInstance(project).getFileIndex();
+    this.moduleIndices = new IdentityHashMap<Module, Integer>(allModules.length);
+    this.moduleSet = new BitSet(allModules.length);
+    this.includeLibraries = includeLibraries;
+    this.includeTests = includeTests;
+
+    for(int i = 0; i < allModules.length; ++i) {
+      moduleIndices.put(allModules[i], i);
+    }
+
+    for(final Module module : modules) {
+      final Integer index = moduleIndices.get(module);
+
+      if(index != null) {
+        moduleSet.set(index);
+      }
+    }
+  }
+
+  public boolean containsModule(@Nullable final Module module) {
+    if(module == null) {
+      return false;
+    }
+
+    final Integer index = moduleIndices.get(module);
+    return index != null && moduleSet.get(index);
+  }
+
+  @Override
+  public boolean contains(@NotNull final VirtualFile file) {
+    final Module module = fileIndex.getModuleForFile(file);
+
+    if(module != null && fileIndex.isInContent(file)) {
+      return containsModule(module)
+          && (includeTests || !fileIndex.isInTestSourceContent(file));
+    }
+
+    if(!includeLibraries || !(fileIndex.isInLibraryClasses(file) || fileIndex.isInLibrarySource(file))) {
+      return false;
+    }
+
+    // A library or SDK file is part of the scope if any of
+    // our modules depends on it
+    for(final OrderEntry entry : fileIndex.getOrderEntriesForFile(file)) {
+      if(!includeTests
+          && entry instanceof ExportableOrderEntry
+          && ((ExportableOrderEntry)entry).getScope() == DependencyScope.TEST) {
+        continue;
+      }
+
+      if(containsModule(entry.getOwnerModule())) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  @Override
+  public int compare(@NotNull final VirtualFile file1, @NotNull final VirtualFile file2) {
+    // a lower rank is preferred
+    final int rank1 = rankOf(file1);
+    final int rank2 = rankOf(file2);
+
+    return rank1 < rank2 ? 1 : rank1 == rank2 ? 0 : -1;
+  }
+
+  /**
+   * Ranks a file by the first of our modules it belongs to
+   *
+   * <p>Content of a module ranks before the libraries of the same module.
+   * Files outside of the scope rank last.
+   */
+  private int rankOf(@NotNull final VirtualFile file) {
+    final Module module = fileIndex.getModuleForFile(file);
+
+    if(module != null && fileIndex.isInContent(file)) {
+      final Integer index = moduleIndices.get(module);
+      return index != null && moduleSet.get(index) ? 2 * index : Integer.MAX_VALUE;
+    }
+
+    int result = Integer.MAX_VALUE;
+
+    for(final OrderEntry entry : fileIndex.getOrderEntriesForFile(file)) {
+      final Integer index = moduleIndices.get(entry.getOwnerModule());
+
+      if(index != null && moduleSet.get(index)) {
+        result = Math.min(result, 2 * index + 1);
+      }
+    }
+
+    return result;
+  }
+
+  @Override
+  public boolean isSearchInModuleContent(@NotNull final Module module) {
+    return containsModule(module);
+  }
+
+  @Override
+  public boolean isSearchInModuleContent(@NotNull final Module module, final boolean testSources) {
+    return containsModule(module) && (includeTests || !testSources);
+  }
+
+  @Override
+  public boolean isSearchInLibraries() {
+    return includeLibraries;
+  }
+
+  @Override
+  public boolean equals(@Nullable final Object object) {
+    if(this == object) {
+      return true;
+    }
+
+    if(object == null || getClass() != object.getClass()) {
+      return false;
+    }
+
+    final DefracModuleSetScope that = (DefracModuleSetScope)object;
+
+    return this.includeLibraries == that.includeLibraries
+        && this.includeTests == that.includeTests
+        && this.moduleIndices.equals(that.moduleIndices)
+        && this.moduleSet.equals(that.moduleSet);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = moduleSet.hashCode();
+    result = 31 * result + (includeLibraries ? 1 : 0);
+    result = 31 * result + (includeTests ? 1 : 0);
+    return result;
+  }
+
+  @NotNull
+  @Override
+  public String toString() {
+    return "DefracModuleSetScope{modules=" + moduleSet + ", libraries=" + includeLibraries + ", tests=" + includeTests + '}';
+  }
+}
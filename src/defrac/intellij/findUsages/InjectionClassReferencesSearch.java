@@ -18,8 +18,11 @@ package defrac.intellij.findUsages;
 
 import com.intellij.psi.PsiReference;
 import defrac.intellij.psi.InjectionClassReference;
+import defrac.intellij.util.Names;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+
 /**
  *
  */
@@ -30,4 +33,10 @@ public final class InjectionClassReferencesSearch extends MultiPlatformClassRefe
   protected boolean isReferenceCandidate(@NotNull final PsiReference reference) {
     return reference instanceof InjectionClassReference;
   }
+
+  @NotNull
+  @Override
+  protected Collection<String> getAnnotationNames() {
+    return Names.ALL_INJECTS;
+  }
 }
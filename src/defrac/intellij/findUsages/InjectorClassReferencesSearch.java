@@ -18,8 +18,12 @@ package defrac.intellij.findUsages;
 
 import com.intellij.psi.PsiReference;
 import defrac.intellij.psi.InjectorClassReference;
+import defrac.intellij.util.Names;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+import java.util.Collections;
+
 /**
  *
  */
@@ -30,4 +34,10 @@ public final class InjectorClassReferencesSearch extends MultiPlatformClassRefer
   protected boolean isReferenceCandidate(@NotNull final PsiReference reference) {
     return reference instanceof InjectorClassReference;
   }
+
+  @NotNull
+  @Override
+  protected Collection<String> getAnnotationNames() {
+    return Collections.singleton(Names.defrac_annotation_Injector);
+  }
 }
@@ -27,6 +27,8 @@ import defrac.intellij.psi.MacroClassReference;
 import defrac.intellij.psi.MacroMethodReference;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+
 import static com.google.common.base.Preconditions.checkNotNull;
 import static defrac.intellij.psi.DefracPsiUtil.isMacro;
 
@@ -74,6 +76,17 @@ public final class MacroClassReferencesSearch extends MacroReferencesSearchBase<
     }
   }
 
+  @NotNull
+  @Override
+  protected Collection<String> getIndexKeys(@NotNull final PsiElement candidate, @NotNull final DefracFacet facet) {
+    if(candidate instanceof PsiMethod) {
+      return getMethodIndexKeys((PsiMethod)candidate);
+    }
+
+    // Macros are indexed by the qualified name of their class as well
+    return super.getIndexKeys(candidate, facet);
+  }
+
   @Override
   protected boolean isReferenceCandidate(@NotNull final PsiReference reference) {
     return (reference instanceof MacroClassReference)
@@ -24,6 +24,8 @@ import defrac.intellij.facet.DefracFacet;
 import defrac.intellij.psi.MacroMethodReference;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+
 import static defrac.intellij.psi.DefracPsiUtil.isMacro;
 
 /**
@@ -56,6 +58,13 @@ public final class MacroMethodReferencesSearch extends MacroReferencesSearchBase
     return candidate.getName();
   }
 
+  @NotNull
+  @Override
+  protected Collection<String> getIndexKeys(@NotNull final PsiMethod candidate,
+                                            @NotNull final DefracFacet facet) {
+    return getMethodIndexKeys(candidate);
+  }
+
   @NotNull
   @Override
   protected SearchScope getSearchScope(@NotNull final MethodReferencesSearch.SearchParameters queryParameter,
@@ -16,20 +16,70 @@
 
 package defrac.intellij.findUsages;
 
+import com.google.common.collect.Lists;
 import com.intellij.openapi.module.Module;
-import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.PsiMethod;
 import com.intellij.psi.search.SearchScope;
+import com.intellij.psi.search.searches.ClassInheritorsSearch;
+import defrac.intellij.DefracPlatform;
 import defrac.intellij.facet.DefracFacet;
+import defrac.intellij.facet.DefracModuleRegistry;
+import defrac.intellij.facet.DefracModuleSetScope;
+import defrac.intellij.util.Names;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
 /**
  *
  */
 abstract class MacroReferencesSearchBase<E extends PsiElement, T> extends ReferencesSearchBase<E, T> {
   MacroReferencesSearchBase() {}
 
+  @NotNull
+  @Override
+  protected Collection<String> getAnnotationNames() {
+    return Names.ALL_MACROS;
+  }
+
+  /**
+   * Returns the index keys of all macros that may reference the given method
+   *
+   * <p>A macro may name the method via its own class or any subclass.
+   */
+  @NotNull
+  protected static Collection<String> getMethodIndexKeys(@NotNull final PsiMethod method) {
+    final PsiClass klass = method.getContainingClass();
+
+    if(klass == null) {
+      return Collections.emptyList();
+    }
+
+    final List<String> result = Lists.newArrayListWithCapacity(1);
+    addMethodIndexKey(klass, method, result);
+
+    for(final PsiClass inheritor : ClassInheritorsSearch.search(klass, klass.getUseScope(), /*checkDeep=*/true).findAll()) {
+      addMethodIndexKey(inheritor, method, result);
+    }
+
+    return result;
+  }
+
+  private static void addMethodIndexKey(@NotNull final PsiClass klass,
+                                        @NotNull final PsiMethod method,
+                                        @NotNull final List<String> result) {
+    final String qualifiedName = klass.getQualifiedName();
+
+    if(qualifiedName != null) {
+      result.add(qualifiedName+'#'+method.getName());
+    }
+  }
+
   @NotNull
   @Override
   protected SearchScope getSearchScope(@NotNull final T queryParameter,
@@ -42,33 +92,28 @@ abstract class MacroReferencesSearchBase<E extends PsiElement, T> extends Refere
     // (3) @Macro class is only referenced in generic or their platform
     // (4) @Macro class is never referenced in its own module
 
-    final Module[] modules = ModuleManager.getInstance(element.getProject()).getModules();
-    GlobalSearchScope scope = GlobalSearchScope.EMPTY_SCOPE;
-
-    for(final Module module : modules) {
-      final DefracFacet thatFacet = DefracFacet.getInstance(module);
-
-      if(thatFacet == null) {
-        continue; // (1)
-      }
-
-      if(thatFacet.isMacroLibrary()) {
-        continue; // (2)
-      }
+    final Project project = element.getProject();
+    final DefracModuleRegistry registry = DefracModuleRegistry.getInstance(project);
+    final Module thisModule = thisFacet.getModule();
+    final List<Module> scopeModules = Lists.newArrayList();
 
+    // (1), (2) the registry yields only non-macro defrac modules per platform
+    for(final DefracPlatform platform : DefracPlatform.values()) {
       if(    !thisFacet.getPlatform().isGeneric()
-          && !thatFacet.getPlatform().isGeneric()
-          && thisFacet.getPlatform() != thatFacet.getPlatform()) {
+          && !platform.isGeneric()
+          && thisFacet.getPlatform() != platform) {
         continue; // (3)
       }
 
-      if(thatFacet == thisFacet) {
-        continue; // (4)
-      }
+      for(final Module module : registry.getSourceModules(platform)) {
+        if(module == thisModule) {
+          continue; // (4)
+        }
 
-      scope = scope.uniteWith(GlobalSearchScope.moduleScope(module));
+        scopeModules.add(module);
+      }
     }
 
-    return scope;
+    return DefracModuleSetScope.moduleContent(project, scopeModules);
   }
 }
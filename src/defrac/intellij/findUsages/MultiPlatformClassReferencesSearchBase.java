@@ -16,17 +16,22 @@
 
 package defrac.intellij.findUsages;
 
+import com.google.common.collect.Lists;
 import com.intellij.openapi.module.Module;
-import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiReference;
-import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.SearchScope;
 import com.intellij.psi.search.searches.ReferencesSearch;
+import defrac.intellij.DefracPlatform;
 import defrac.intellij.facet.DefracFacet;
+import defrac.intellij.facet.DefracModuleRegistry;
+import defrac.intellij.facet.DefracModuleSetScope;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
@@ -71,29 +76,23 @@ abstract class MultiPlatformClassReferencesSearchBase extends ReferencesSearchBa
     // (2) @Inject(or) class is never referenced in macro projects
     // (3) @Inject(or) class is only referenced in generic or their platform
 
-    final Module[] modules = ModuleManager.getInstance(element.getProject()).getModules();
-    GlobalSearchScope scope = GlobalSearchScope.EMPTY_SCOPE;
-
-    for(final Module module : modules) {
-      final DefracFacet thatFacet = DefracFacet.getInstance(module);
-
-      if(thatFacet == null) {
-        continue; // (1)
-      }
-
-      if(thatFacet.isMacroLibrary()) {
-        continue; // (2)
-      }
+    final Project project = element.getProject();
+    final DefracModuleRegistry registry = DefracModuleRegistry.getInstance(project);
+    final List<Module> scopeModules = Lists.newArrayList();
 
+    // (1), (2) the registry yields only non-macro defrac modules per platform
+    for(final DefracPlatform platform : DefracPlatform.values()) {
       if(    !thisFacet.getPlatform().isGeneric()
-          && !thatFacet.getPlatform().isGeneric()
-          && thisFacet.getPlatform() != thatFacet.getPlatform()) {
+          && !platform.isGeneric()
+          && thisFacet.getPlatform() != platform) {
         continue; // (3)
       }
 
-      scope = scope.uniteWith(GlobalSearchScope.moduleScope(module));
+      for(final Module module : registry.getSourceModules(platform)) {
+        scopeModules.add(module);
+      }
     }
 
-    return scope;
+    return DefracModuleSetScope.moduleContent(project, scopeModules);
   }
 }
@@ -17,18 +17,22 @@
 package defrac.intellij.findUsages;
 
 import com.intellij.openapi.application.QueryExecutorBase;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Condition;
-import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiLiteralExpression;
-import com.intellij.psi.PsiReference;
-import com.intellij.psi.PsiTypeParameter;
+import com.intellij.psi.*;
 import com.intellij.psi.search.*;
 import com.intellij.util.Processor;
 import defrac.intellij.DefracPlatform;
 import defrac.intellij.facet.DefracFacet;
+import defrac.intellij.index.DefracAnnotationIndex;
 import defrac.intellij.psi.DefracReference;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
 import static com.intellij.psi.util.PsiTreeUtil.getParentOfType;
 
 /**
@@ -68,6 +72,23 @@ abstract class ReferencesSearchBase<E extends PsiElement, T> extends QueryExecut
 
   protected abstract boolean isReferenceCandidate(@NotNull final PsiReference reference);
 
+  /**
+   * Returns the qualified names of all annotations that may reference the candidate
+   */
+  @NotNull
+  protected abstract Collection<String> getAnnotationNames();
+
+  /**
+   * Returns the keys of the {@link DefracAnnotationIndex} for the candidate
+   *
+   * <p>By default this is the search string of the candidate.
+   */
+  @NotNull
+  protected Collection<String> getIndexKeys(@NotNull final E candidate,
+                                            @NotNull final DefracFacet facet) {
+    return Collections.singletonList(getSearchString(candidate, facet));
+  }
+
   @Override
   public final void processQuery(@NotNull final T queryParameter,
                                  @NotNull final Processor<PsiReference> consumer) {
@@ -86,12 +107,38 @@ abstract class ReferencesSearchBase<E extends PsiElement, T> extends QueryExecut
       return;
     }
 
+    final Project project = elementToSearch.getProject();
     final SearchScope scope = getSearchScope(queryParameter, elementToSearch, facet);
-    final PsiSearchHelper helper = PsiSearchHelper.SERVICE.getInstance(elementToSearch.getProject());
 
-    final TextOccurenceProcessor processor = new DefracTextOccurrenceProcessor<E>(elementToSearch, facet.getPlatform(), consumer,
+    final DefracTextOccurrenceProcessor<E> processor = new DefracTextOccurrenceProcessor<E>(elementToSearch, facet.getPlatform(), consumer,
         referenceFilter);
 
+    if(scope instanceof GlobalSearchScope && !DumbService.isDumb(project)) {
+      // Go straight to the literals of defrac annotations instead
+      // of looking at each string that contains the search string
+      for(final String key : getIndexKeys(elementToSearch, facet)) {
+        final List<PsiAnnotation> annotations =
+            DefracAnnotationIndex.findAnnotations(project, key, getAnnotationNames(), (GlobalSearchScope)scope);
+
+        for(final PsiAnnotation annotation : annotations) {
+          final PsiNameValuePair[] attributes = annotation.getParameterList().getAttributes();
+          final PsiAnnotationMemberValue value = attributes.length < 1 ? null : attributes[0].getValue();
+
+          if(!(value instanceof PsiLiteralExpression)) {
+            continue;
+          }
+
+          if(!processor.processLiteral((PsiLiteralExpression)value, /*offsetInElement=*/-1)) {
+            return;
+          }
+        }
+      }
+
+      return;
+    }
+
+    final PsiSearchHelper helper = PsiSearchHelper.SERVICE.getInstance(project);
+
     helper.processElementsWithWord(
         processor,
         scope,
@@ -133,6 +180,18 @@ abstract class ReferencesSearchBase<E extends PsiElement, T> extends QueryExecut
         return true;
       }
 
+      return processLiteral(literalExpression, offsetInElement);
+    }
+
+    /**
+     * Passes all references of a literal to the consumer that point to the element
+     *
+     * @param literalExpression The literal
+     * @param offsetInElement The offset of the occurrence; or -1 to consider all references
+     * @return {@code false} if the consumer stopped the search; {@code true} otherwise
+     */
+    public boolean processLiteral(@NotNull final PsiLiteralExpression literalExpression,
+                                  final int offsetInElement) {
       final PsiReference[] references = literalExpression.getReferences();
 
       for(final PsiReference reference : references) {
@@ -140,7 +199,7 @@ abstract class ReferencesSearchBase<E extends PsiElement, T> extends QueryExecut
           continue;
         }
 
-        if(!reference.getRangeInElement().contains(offsetInElement)) {
+        if(offsetInElement != -1 && !reference.getRangeInElement().contains(offsetInElement)) {
           continue;
         }
 
@@ -153,8 +212,8 @@ abstract class ReferencesSearchBase<E extends PsiElement, T> extends QueryExecut
           }
         }
 
-        if(reference.isReferenceTo(elementToSearch)) {
-          return consumer.process(reference);
+        if(reference.isReferenceTo(elementToSearch) && !consumer.process(reference)) {
+          return false;
         }
       }
 
@@ -20,18 +20,11 @@ import com.google.common.collect.Lists;
 import com.intellij.navigation.GotoRelatedItem;
 import com.intellij.navigation.GotoRelatedProvider;
 import com.intellij.psi.*;
-import defrac.intellij.psi.InjectionClassReference;
-import defrac.intellij.psi.MacroMethodReference;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
-import static com.intellij.psi.util.PsiUtil.mapElements;
-import static defrac.intellij.psi.DefracPsiUtil.isInjectAnnotation;
-import static defrac.intellij.psi.DefracPsiUtil.isMacroAnnotation;
-
 /**
  *
  */
@@ -68,24 +61,14 @@ public final class RelatedDeclarationProvider extends GotoRelatedProvider {
 
   @NotNull
   public List<GotoRelatedItem> getItems(@NotNull final PsiMethod method) {
-    final PsiModifierList modifiers = method.getModifierList();
     final ArrayList<GotoRelatedItem> items = Lists.newArrayListWithCapacity(0);
 
-    for(final PsiAnnotation annotation : modifiers.getAnnotations()) {
-      if(!isMacroAnnotation(annotation)) {
-        continue;
-      }
-
-      final MacroMethodReference reference =
-          MacroMethodReference.getInstance(annotation);
-
-      if(reference == null) {
-        continue;
-      }
+    for(final PsiElement element : RelatedDeclarations.findMacroImplementations(method)) {
+      items.add(new GotoRelatedItem(element, "Macro"));
+    }
 
-      for(final PsiElement element : mapElements(reference.multiResolve())) {
-        items.add(new GotoRelatedItem(element, "Macro"));
-      }
+    for(final PsiMethod macroMethod : RelatedDeclarations.findMacroUsages(method)) {
+      items.add(new GotoRelatedItem(macroMethod, "Macro usage"));
     }
 
     return items;
@@ -93,29 +76,14 @@ public final class RelatedDeclarationProvider extends GotoRelatedProvider {
 
   @NotNull
   public List<GotoRelatedItem> getItems(@NotNull final PsiClass klass) {
-    final PsiModifierList modifiers = klass.getModifierList();
-
-    if(modifiers == null) {
-      return Collections.emptyList();
-    }
-
     final ArrayList<GotoRelatedItem> items = Lists.newArrayListWithCapacity(0);
 
-    for(final PsiAnnotation annotation : modifiers.getAnnotations()) {
-      if(!isInjectAnnotation(annotation)) {
-        continue;
-      }
-
-      final InjectionClassReference reference =
-          InjectionClassReference.getInstance(annotation);
-
-      if(reference == null) {
-        continue;
-      }
+    for(final PsiElement element : RelatedDeclarations.findInjections(klass)) {
+      items.add(new GotoRelatedItem(element, "Injection"));
+    }
 
-      for(final PsiElement element : mapElements(reference.multiResolve())) {
-        items.add(new GotoRelatedItem(element, "Injection"));
-      }
+    for(final PsiClass injector : RelatedDeclarations.findInjectors(klass)) {
+      items.add(new GotoRelatedItem(injector, "Injector"));
     }
 
     return items;
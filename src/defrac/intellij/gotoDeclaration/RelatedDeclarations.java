@@ -0,0 +1,191 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.gotoDeclaration;
+
+import com.google.common.collect.Lists;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import defrac.intellij.index.DefracAnnotationIndex;
+import defrac.intellij.psi.InjectionClassReference;
+import defrac.intellij.psi.MacroMethodReference;
+import defrac.intellij.util.Names;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.intellij.psi.util.PsiTreeUtil.getParentOfType;
+import static com.intellij.psi.util.PsiUtil.mapElements;
+import static defrac.intellij.psi.DefracPsiUtil.isInjectAnnotation;
+import static defrac.intellij.psi.DefracPsiUtil.isMacro;
+import static defrac.intellij.psi.DefracPsiUtil.isMacroAnnotation;
+
+/**
+ * Relations between injectors and injections and between macros and their implementations
+ *
+ * <p>The {@code find} methods resolve the related declarations. The {@code mayHave} methods
+ * only consult the {@link DefracAnnotationIndex} and never resolve anything.
+ */
+public final class RelatedDeclarations {
+  /**
+   * Finds the injections referenced by the {@code @Inject} annotations of an injector
+   */
+  @NotNull
+  public static List<PsiElement> findInjections(@NotNull final PsiClass injector) {
+    final PsiModifierList modifiers = injector.getModifierList();
+
+    if(modifiers == null) {
+      return Collections.emptyList();
+    }
+
+    final List<PsiElement> result = Lists.newArrayListWithCapacity(0);
+
+    for(final PsiAnnotation annotation : modifiers.getAnnotations()) {
+      if(!isInjectAnnotation(annotation)) {
+        continue;
+      }
+
+      final InjectionClassReference reference =
+          InjectionClassReference.getInstance(annotation);
+
+      if(reference == null) {
+        continue;
+      }
+
+      Collections.addAll(result, mapElements(reference.multiResolve()));
+    }
+
+    return result;
+  }
+
+  /**
+   * Finds all injectors that reference a class via {@code @Inject}
+   */
+  @NotNull
+  public static List<PsiClass> findInjectors(@NotNull final PsiClass injection) {
+    final String qualifiedName = injection.getQualifiedName();
+
+    if(qualifiedName == null) {
+      return Collections.emptyList();
+    }
+
+    final Project project = injection.getProject();
+    final List<PsiClass> result = Lists.newArrayListWithCapacity(0);
+
+    for(final PsiAnnotation annotation : DefracAnnotationIndex.findAnnotations(
+        project, qualifiedName, Names.ALL_INJECTS, GlobalSearchScope.projectScope(project))) {
+      final PsiClass injector = getParentOfType(annotation, PsiClass.class);
+
+      if(injector != null && injector != injection) {
+        result.add(injector);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns whether or not any injector may reference a class via {@code @Inject}
+   */
+  public static boolean mayHaveInjectors(@NotNull final PsiClass injection) {
+    final String qualifiedName = injection.getQualifiedName();
+
+    return qualifiedName != null
+        && DefracAnnotationIndex.hasAnnotations(
+            qualifiedName, Names.ALL_INJECTS, GlobalSearchScope.projectScope(injection.getProject()));
+  }
+
+  /**
+   * Finds the implementations referenced by the {@code @Macro} annotations of a method
+   */
+  @NotNull
+  public static List<PsiElement> findMacroImplementations(@NotNull final PsiMethod method) {
+    final List<PsiElement> result = Lists.newArrayListWithCapacity(0);
+
+    for(final PsiAnnotation annotation : method.getModifierList().getAnnotations()) {
+      if(!isMacroAnnotation(annotation)) {
+        continue;
+      }
+
+      final MacroMethodReference reference =
+          MacroMethodReference.getInstance(annotation);
+
+      if(reference == null) {
+        continue;
+      }
+
+      Collections.addAll(result, mapElements(reference.multiResolve()));
+    }
+
+    return result;
+  }
+
+  /**
+   * Finds all methods that reference a method of a macro class via {@code @Macro}
+   */
+  @NotNull
+  public static List<PsiMethod> findMacroUsages(@NotNull final PsiMethod implementation) {
+    final String target = getMacroTarget(implementation);
+
+    if(target == null) {
+      return Collections.emptyList();
+    }
+
+    final Project project = implementation.getProject();
+    final List<PsiMethod> result = Lists.newArrayListWithCapacity(0);
+
+    for(final PsiAnnotation annotation : DefracAnnotationIndex.findAnnotations(
+        project, target, Names.ALL_MACROS, GlobalSearchScope.projectScope(project))) {
+      final PsiMethod method = getParentOfType(annotation, PsiMethod.class);
+
+      if(method != null) {
+        result.add(method);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns whether or not any method may reference a method of a macro class via {@code @Macro}
+   */
+  public static boolean mayHaveMacroUsages(@NotNull final PsiMethod implementation) {
+    final String target = getMacroTarget(implementation);
+
+    return target != null
+        && DefracAnnotationIndex.hasAnnotations(
+            target, Names.ALL_MACROS, GlobalSearchScope.projectScope(implementation.getProject()));
+  }
+
+  @Nullable
+  private static String getMacroTarget(@NotNull final PsiMethod implementation) {
+    // Methods of a macro class are implementations for all methods
+    // that reference them via @Macro
+    final PsiClass klass = implementation.getContainingClass();
+
+    if(klass == null || !isMacro(klass)) {
+      return null;
+    }
+
+    final String qualifiedName = klass.getQualifiedName();
+    return qualifiedName == null ? null : qualifiedName+'#'+implementation.getName();
+  }
+
+  private RelatedDeclarations() {}
+}
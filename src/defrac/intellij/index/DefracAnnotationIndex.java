@@ -0,0 +1,467 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.index;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.util.io.DataInputOutputUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import defrac.intellij.util.Names;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.intellij.psi.util.PsiTreeUtil.getParentOfType;
+import static defrac.intellij.psi.DefracPsiUtil.getValue;
+
+/**
+ * Index of all targets referenced by defrac annotations
+ *
+ * <p>The key is the string literal of an {@code @Inject}, {@code @Injector} or {@code @Macro}
+ * annotation, which is the qualified name of a class or {@code Class#method} in
+ * case of a macro. Macros are indexed by the qualified name of their class as well.
+ * The value describes the annotation and the annotated element.
+ *
+ * <p>Annotations are matched by their name and the imports of the file since
+ * nothing may be resolved during indexing. Use {@link #findAnnotations(Project, String, Collection, GlobalSearchScope)}
+ * to get the verified annotations for a target.
+ */
+public final class DefracAnnotationIndex extends FileBasedIndexExtension<String, List<DefracAnnotationIndex.Link>> {
+  @NotNull
+  public static final ID<String, List<Link>> NAME = ID.create("defrac.annotationTarget");
+
+  @NotNull
+  private static final String ANNOTATION_PACKAGE = "defrac.annotation";
+
+  @NotNull
+  private static final Map<String, String> SHORT_NAME_TO_ANNOTATION = createShortNames();
+
+  /**
+   * Finds all defrac annotations that reference the given target
+   *
+   * @param project The current project
+   * @param target The qualified name of a class or {@code Class#method} in case of a macro;
+   *               macros are also found by the qualified name of their class
+   * @param annotationNames The qualified names of the annotations to look for
+   * @param scope The scope to search in
+   * @return The annotations referencing the target
+   */
+  @NotNull
+  public static List<PsiAnnotation> findAnnotations(@NotNull final Project project,
+                                                    @NotNull final String target,
+                                                    @NotNull final Collection<String> annotationNames,
+                                                    @NotNull final GlobalSearchScope scope) {
+    final PsiManager psiManager = PsiManager.getInstance(project);
+    final JavaPsiFacade javaPsiFacade = JavaPsiFacade.getInstance(project);
+    final List<PsiAnnotation> result = Lists.newArrayListWithCapacity(0);
+
+    FileBasedIndex.getInstance().processValues(NAME, target, null, new FileBasedIndex.ValueProcessor<List<Link>>() {
+      @Override
+      public boolean process(final VirtualFile file, final List<Link> links) {
+        final PsiFile psiFile = psiManager.findFile(file);
+
+        if(psiFile == null) {
+          return true;
+        }
+
+        final GlobalSearchScope fileScope = GlobalSearchScope.fileScope(psiFile);
+
+        for(final Link link : links) {
+          if(!annotationNames.contains(link.annotation)) {
+            continue;
+          }
+
+          final PsiClass klass = javaPsiFacade.findClass(link.className, fileScope);
+
+          if(klass == null) {
+            continue;
+          }
+
+          if(link.methodName == null) {
+            addAnnotation(klass, link.annotation, target, result);
+          } else {
+            for(final PsiMethod method : klass.findMethodsByName(link.methodName, /*checkBases=*/false)) {
+              addAnnotation(method, link.annotation, target, result);
+            }
+          }
+        }
+
+        return true;
+      }
+    }, scope);
+
+    return result;
+  }
+
+  /**
+   * Returns whether or not any defrac annotation may reference the given target
+   *
+   * <p>Unlike {@link #findAnnotations(Project, String, Collection, GlobalSearchScope)} this
+   * neither loads nor resolves anything. The result is a guess based on names.
+   *
+   * @param target The qualified name of a class or {@code Class#method} in case of a macro
+   * @param annotationNames The qualified names of the annotations to look for
+   * @param scope The scope to search in
+   * @return {@code true} if an annotation may reference the target
+   */
+  public static boolean hasAnnotations(@NotNull final String target,
+                                       @NotNull final Collection<String> annotationNames,
+                                       @NotNull final GlobalSearchScope scope) {
+    final Ref<Boolean> found = Ref.create(false);
+
+    FileBasedIndex.getInstance().processValues(NAME, target, null, new FileBasedIndex.ValueProcessor<List<Link>>() {
+      @Override
+      public boolean process(final VirtualFile file, final List<Link> links) {
+        for(final Link link : links) {
+          if(annotationNames.contains(link.annotation)) {
+            found.set(true);
+            return false;
+          }
+        }
+
+        return true;
+      }
+    }, scope);
+
+    return found.get();
+  }
+
+  private static void addAnnotation(@NotNull final PsiModifierListOwner owner,
+                                    @NotNull final String annotationName,
+                                    @NotNull final String target,
+                                    @NotNull final List<PsiAnnotation> result) {
+    // The index is only a guess based on names, verify that the
+    // annotation resolves and still references the target
+    final PsiModifierList modifierList = owner.getModifierList();
+
+    if(modifierList == null) {
+      return;
+    }
+
+    final PsiAnnotation annotation = modifierList.findAnnotation(annotationName);
+
+    // Overloaded methods share a link and would be reported twice
+    if(annotation != null && isTarget(getTarget(annotation), target) && !result.contains(annotation)) {
+      result.add(annotation);
+    }
+  }
+
+  private static boolean isTarget(@Nullable final String value, @NotNull final String target) {
+    // A macro like "Class#method" references its class as well
+    return value != null
+        && value.startsWith(target)
+        && (value.length() == target.length() || value.charAt(target.length()) == '#');
+  }
+
+  @Nullable
+  private static String getTarget(@NotNull final PsiAnnotation annotation) {
+    final PsiNameValuePair[] attributes = annotation.getParameterList().getAttributes();
+
+    if(attributes.length < 1) {
+      return null;
+    }
+
+    final PsiAnnotationMemberValue value = attributes[0].getValue();
+
+    return value instanceof PsiLiteralExpression
+        ? getValue((PsiLiteralExpression)value)
+        : null;
+  }
+
+  @NotNull
+  private static Map<String, String> createShortNames() {
+    final ImmutableMap.Builder<String, String> builder = ImmutableMap.builder();
+
+    for(final String name : Names.ALL_INJECTS) {
+      builder.put(StringUtil.getShortName(name), name);
+    }
+
+    for(final String name : Names.ALL_MACROS) {
+      builder.put(StringUtil.getShortName(name), name);
+    }
+
+    builder.put(StringUtil.getShortName(Names.defrac_annotation_Injector), Names.defrac_annotation_Injector);
+
+    return builder.build();
+  }
+
+  @NotNull
+  private final DataIndexer<String, List<Link>, FileContent> indexer = new DataIndexer<String, List<Link>, FileContent>() {
+    @NotNull
+    @Override
+    public Map<String, List<Link>> map(@NotNull final FileContent inputData) {
+      // Files that neither import nor name a defrac annotation can't contain one
+      if(!StringUtil.contains(inputData.getContentAsText(), ANNOTATION_PACKAGE)) {
+        return Collections.emptyMap();
+      }
+
+      final PsiFile file = inputData.getPsiFile();
+
+      if(!(file instanceof PsiJavaFile)) {
+        return Collections.emptyMap();
+      }
+
+      final PsiJavaFile javaFile = (PsiJavaFile)file;
+      final Map<String, List<Link>> result = Maps.newHashMap();
+
+      javaFile.accept(new JavaRecursiveElementWalkingVisitor() {
+        @Override
+        public void visitCodeBlock(final PsiCodeBlock block) {
+          // defrac annotations are never placed inside of a method body
+        }
+
+        @Override
+        public void visitAnnotation(final PsiAnnotation annotation) {
+          final String annotationName = guessAnnotationName(javaFile, annotation);
+
+          if(annotationName == null) {
+            return;
+          }
+
+          final String target = getTarget(annotation);
+
+          if(target == null || target.isEmpty()) {
+            return;
+          }
+
+          final Link link = createLink(annotation, annotationName);
+
+          if(link == null) {
+            return;
+          }
+
+          addLink(result, target, link);
+
+          // Macros are found by their class as well
+          final int indexOfHash = target.lastIndexOf('#');
+
+          if(indexOfHash > 0) {
+            addLink(result, target.substring(0, indexOfHash), link);
+          }
+        }
+      });
+
+      return result;
+    }
+
+    private void addLink(@NotNull final Map<String, List<Link>> result,
+                         @NotNull final String key,
+                         @NotNull final Link link) {
+      List<Link> links = result.get(key);
+
+      if(links == null) {
+        links = Lists.newArrayListWithCapacity(1);
+        result.put(key, links);
+      }
+
+      links.add(link);
+    }
+  };
+
+  @NotNull
+  private final DataExternalizer<List<Link>> externalizer = new DataExternalizer<List<Link>>() {
+    @Override
+    public void save(@NotNull final DataOutput out, final List<Link> value) throws IOException {
+      DataInputOutputUtil.writeINT(out, value.size());
+
+      for(final Link link : value) {
+        IOUtil.writeUTF(out, link.annotation);
+        IOUtil.writeUTF(out, link.className);
+        out.writeBoolean(link.methodName != null);
+
+        if(link.methodName != null) {
+          IOUtil.writeUTF(out, link.methodName);
+        }
+      }
+    }
+
+    @Override
+    public List<Link> read(@NotNull final DataInput in) throws IOException {
+      final int size = DataInputOutputUtil.readINT(in);
+      final List<Link> result = Lists.newArrayListWithExpectedSize(size);
+
+      for(int i = 0; i < size; ++i) {
+        final String annotation = IOUtil.readUTF(in);
+        final String className = IOUtil.readUTF(in);
+        final String methodName = in.readBoolean() ? IOUtil.readUTF(in) : null;
+
+        result.add(new Link(annotation, className, methodName));
+      }
+
+      return result;
+    }
+  };
+
+  public DefracAnnotationIndex() {}
+
+  @NotNull
+  @Override
+  public ID<String, List<Link>> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, List<Link>, FileContent> getIndexer() {
+    return indexer;
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return new EnumeratorStringDescriptor();
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<Link>> getValueExternalizer() {
+    return externalizer;
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 1;
+  }
+
+  @Nullable
+  private static String guessAnnotationName(@NotNull final PsiJavaFile file,
+                                            @NotNull final PsiAnnotation annotation) {
+    final PsiJavaCodeReferenceElement reference = annotation.getNameReferenceElement();
+
+    if(reference == null) {
+      return null;
+    }
+
+    final String annotationName = SHORT_NAME_TO_ANNOTATION.get(reference.getReferenceName());
+
+    if(annotationName == null) {
+      return null;
+    }
+
+    if(reference.isQualified()) {
+      // Fully qualified usage like @defrac.annotation.Inject("...")
+      return annotationName.equals(reference.getText()) ? annotationName : null;
+    }
+
+    final PsiImportList importList = file.getImportList();
+
+    if(importList == null) {
+      return null;
+    }
+
+    return importList.findSingleClassImportStatement(annotationName) != null
+        || importList.findOnDemandImportStatement(ANNOTATION_PACKAGE) != null
+        ? annotationName
+        : null;
+  }
+
+  @Nullable
+  private static Link createLink(@NotNull final PsiAnnotation annotation,
+                                 @NotNull final String annotationName) {
+    final PsiModifierListOwner owner = getParentOfType(annotation, PsiModifierListOwner.class);
+
+    if(owner instanceof PsiClass) {
+      final String className = ((PsiClass)owner).getQualifiedName();
+      return className == null ? null : new Link(annotationName, className, null);
+    }
+
+    if(owner instanceof PsiMethod) {
+      final PsiClass klass = ((PsiMethod)owner).getContainingClass();
+      final String className = klass == null ? null : klass.getQualifiedName();
+      return className == null ? null : new Link(annotationName, className, ((PsiMethod)owner).getName());
+    }
+
+    return null;
+  }
+
+  /**
+   * An annotated class or method referencing a target
+   */
+  public static final class Link {
+    @NotNull
+    private final String annotation;
+
+    @NotNull
+    private final String className;
+
+    @Nullable
+    private final String methodName;
+
+    Link(@NotNull final String annotation,
+         @NotNull final String className,
+         @Nullable final String methodName) {
+      this.annotation = annotation;
+      this.className = className;
+      this.methodName = methodName;
+    }
+
+    @Override
+    public boolean equals(@Nullable final Object object) {
+      if(this == object) {
+        return true;
+      }
+
+      if(object == null || getClass() != object.getClass()) {
+        return false;
+      }
+
+      final Link that = (Link)object;
+
+      return this.annotation.equals(that.annotation)
+          && this.className.equals(that.className)
+          && (this.methodName == null ? that.methodName == null : this.methodName.equals(that.methodName));
+    }
+
+    @Override
+    public int hashCode() {
+      int result = annotation.hashCode();
+      result = 31 * result + className.hashCode();
+      result = 31 * result + (methodName == null ? 0 : methodName.hashCode());
+      return result;
+    }
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.inspection;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ContentIterator;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.util.Processor;
+import defrac.intellij.DefracPlatform;
+import defrac.intellij.facet.DefracModuleRegistry;
+import defrac.intellij.psi.validation.DefracFileValidator;
+import defrac.intellij.psi.validation.ValidationProblem;
+import defrac.json.JSONArray;
+import defrac.json.JSONObject;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Validates all multi-platform classes and macros of a project in parallel
+ *
+ * <p>Files are validated concurrently by the fork-join pool of the {@link JobLauncher},
+ * each file in its own read action. The results can be written as a JSON report.
+ */
+public final class MultiPlatformConsistencyChecker {
+  /**
+   * Returns all Java files of the defrac source modules of a project
+   *
+   * @param project The project
+   * @return The files to check
+   */
+  @NotNull
+  public static List<VirtualFile> collectFiles(@NotNull final Project project) {
+    return ApplicationManager.getApplication().runReadAction(new Computable<List<VirtualFile>>() {
+      @Override
+      public List<VirtualFile> compute() {
+        final DefracModuleRegistry registry = DefracModuleRegistry.getInstance(project);
+        final List<VirtualFile> files = Lists.newArrayList();
+
+        for(final DefracPlatform platform : DefracPlatform.values()) {
+          for(final Module module : registry.getSourceModules(platform)) {
+            ModuleRootManager.getInstance(module).getFileIndex().iterateContent(new ContentIterator() {
+              @Override
+              public boolean processFile(final VirtualFile file) {
+                if(!file.isDirectory() && file.getFileType() == JavaFileType.INSTANCE) {
+                  files.add(file);
+                }
+
+                return true;
+              }
+            });
+          }
+        }
+
+        return files;
+      }
+    });
+  }
+
+  /**
+   * Validates the given files in parallel
+   *
+   * @param project The project of the files
+   * @param files The files to validate
+   * @param indicator The indicator to report progress to and check for cancellation
+   * @return The problems of each file with at least one problem
+   */
+  @NotNull
+  public static Map<VirtualFile, List<DefracFileValidator.Diagnostic>> check(@NotNull final Project project,
+                                                                             @NotNull final List<VirtualFile> files,
+                                                                             @NotNull final ProgressIndicator indicator) {
+    final PsiManager psiManager = PsiManager.getInstance(project);
+    final ConcurrentMap<VirtualFile, List<DefracFileValidator.Diagnostic>> results = Maps.newConcurrentMap();
+
+    JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, indicator, /*failFastOnAcquireReadAction=*/false, new Processor<VirtualFile>() {
+      @Override
+      public boolean process(final VirtualFile file) {
+        final List<DefracFileValidator.Diagnostic> diagnostics =
+            ApplicationManager.getApplication().runReadAction(new Computable<List<DefracFileValidator.Diagnostic>>() {
+              @Override
+              public List<DefracFileValidator.Diagnostic> compute() {
+                if(!file.isValid()) {
+                  return null;
+                }
+
+                final PsiFile psiFile = psiManager.findFile(file);
+                return psiFile == null ? null : DefracFileValidator.validate(psiFile);
+              }
+            });
+
+        if(diagnostics != null && !diagnostics.isEmpty()) {
+          results.put(file, diagnostics);
+        }
+
+        return true;
+      }
+    });
+
+    return results;
+  }
+
+  /**
+   * Creates a JSON report of the given results
+   *
+   * <p>The report contains the number of checked files and one entry
+   * with file, line and message for each problem.
+   *
+   * @param project The project of the results
+   * @param fileCount The number of files that have been checked
+   * @param results The results of {@link #check(Project, List, ProgressIndicator)}
+   * @return The report
+   */
+  @NotNull
+  public static JSONObject createReport(@NotNull final Project project,
+                                        final int fileCount,
+                                        @NotNull final Map<VirtualFile, List<DefracFileValidator.Diagnostic>> results) {
+    return ApplicationManager.getApplication().runReadAction(new Computable<JSONObject>() {
+      @Override
+      public JSONObject compute() {
+        final PsiDocumentManager documentManager = PsiDocumentManager.getInstance(project);
+        final JSONArray problems = new JSONArray();
+
+        for(final Map.Entry<VirtualFile, List<DefracFileValidator.Diagnostic>> entry : results.entrySet()) {
+          for(final DefracFileValidator.Diagnostic diagnostic : entry.getValue()) {
+            if(!diagnostic.getElement().isValid()) {
+              continue;
+            }
+
+            for(final ValidationProblem problem : diagnostic.getProblems()) {
+              final PsiElement target = problem.getTarget(diagnostic.getElement());
+              final PsiFile file = target.getContainingFile();
+              final Document document = file == null ? null : documentManager.getDocument(file);
+              final JSONObject json = new JSONObject();
+
+              json.put("file", entry.getKey().getPath());
+              json.put("line", document == null ? 0 : document.getLineNumber(target.getTextOffset()) + 1);
+              json.put("message", problem.getMessage());
+
+              problems.push(json);
+            }
+          }
+        }
+
+        final JSONObject report = new JSONObject();
+
+        report.put("files", fileCount);
+        report.put("problems", problems);
+
+        return report;
+      }
+    });
+  }
+
+  private MultiPlatformConsistencyChecker() {}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.inspection;
+
+import com.google.common.collect.Lists;
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.codeInspection.*;
+import com.intellij.codeInspection.reference.RefEntity;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.util.Processor;
+import defrac.intellij.psi.validation.DefracFileValidator;
+import defrac.intellij.psi.validation.ValidationProblem;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports all invalid multi-platform classes and macros of a scope
+ */
+public final class MultiPlatformConsistencyInspection extends GlobalInspectionTool {
+  public MultiPlatformConsistencyInspection() {}
+
+  @Override
+  public boolean isGraphNeeded() {
+    return false;
+  }
+
+  @Override
+  public void runInspection(@NotNull final AnalysisScope scope,
+                            @NotNull final InspectionManager manager,
+                            @NotNull final GlobalInspectionContext globalContext,
+                            @NotNull final ProblemDescriptionsProcessor problemDescriptionsProcessor) {
+    final List<VirtualFile> files = Lists.newArrayList();
+
+    scope.accept(new Processor<VirtualFile>() {
+      @Override
+      public boolean process(final VirtualFile file) {
+        if(!file.isDirectory() && file.getFileType() == JavaFileType.INSTANCE) {
+          files.add(file);
+        }
+
+        return true;
+      }
+    });
+
+    final ProgressIndicator currentIndicator = ProgressManager.getInstance().getProgressIndicator();
+    final ProgressIndicator indicator = currentIndicator == null ? new EmptyProgressIndicator() : currentIndicator;
+
+    final Map<VirtualFile, List<DefracFileValidator.Diagnostic>> results =
+        MultiPlatformConsistencyChecker.check(manager.getProject(), files, indicator);
+
+    ApplicationManager.getApplication().runReadAction(new Runnable() {
+      @Override
+      public void run() {
+        for(final List<DefracFileValidator.Diagnostic> diagnostics : results.values()) {
+          for(final DefracFileValidator.Diagnostic diagnostic : diagnostics) {
+            if(!diagnostic.getElement().isValid()) {
+              continue;
+            }
+
+            for(final ValidationProblem problem : diagnostic.getProblems()) {
+              final PsiElement target = problem.getTarget(diagnostic.getElement());
+              final RefEntity refEntity = globalContext.getRefManager().getReference(target.getContainingFile());
+
+              if(refEntity == null) {
+                continue;
+              }
+
+              problemDescriptionsProcessor.addProblemElement(refEntity,
+                  manager.createProblemDescriptor(target, problem.getMessage(), /*onTheFly=*/false,
+                      problem.getLocalQuickFixes(), ProblemHighlightType.GENERIC_ERROR_OR_WARNING));
+            }
+          }
+        }
+      }
+    });
+  }
+}
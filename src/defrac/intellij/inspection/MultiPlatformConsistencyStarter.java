@@ -0,0 +1,150 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.inspection;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Closeables;
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.application.ex.ApplicationManagerEx;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import defrac.intellij.psi.validation.DefracFileValidator;
+import defrac.json.JSON;
+import defrac.json.JSONObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validates all multi-platform classes and macros of a project without an IDE
+ *
+ * <p>Usage: {@code defrac-validate <project> [<report.json>]}. The report is printed
+ * to the standard output unless a file is given, everything else goes to the log.
+ * The process exits with status {@code 1} if there is at least one problem.
+ */
+public final class MultiPlatformConsistencyStarter implements ApplicationStarter {
+  @NotNull
+  private static final Logger LOG = Logger.getInstance(MultiPlatformConsistencyStarter.class.getName());
+
+  @NotNull
+  private static final String COMMAND_NAME = "defrac-validate";
+
+  private static final int STATUS_OK = 0;
+  private static final int STATUS_PROBLEMS = 1;
+  private static final int STATUS_ERROR = 2;
+
+  public MultiPlatformConsistencyStarter() {}
+
+  @Override
+  public String getCommandName() {
+    return COMMAND_NAME;
+  }
+
+  @Override
+  public void premain(final String[] args) {
+    if(args.length < 2 || args.length > 3) {
+      LOG.error("Usage: "+COMMAND_NAME+" <project> [<report.json>]");
+      System.exit(STATUS_ERROR);
+    }
+  }
+
+  @Override
+  public void main(final String[] args) {
+    // Waiting for the indices blocks so it must not happen on the event dispatch thread
+    ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+      @Override
+      public void run() {
+        final int status = openAndValidate(args);
+
+        if(status != STATUS_OK) {
+          // the platform exits with 0, only a failure needs a different status
+          System.exit(status);
+        }
+
+        ApplicationManagerEx.getApplicationEx().exit(/*force=*/true, /*exitConfirmed=*/true);
+      }
+    });
+  }
+
+  private static int openAndValidate(@NotNull final String[] args) {
+    final String projectPath = new File(args[1]).getAbsolutePath();
+    final File reportFile = args.length > 2 ? new File(args[2]) : null;
+
+    LOG.info("Opening project "+projectPath);
+
+    final Project project = ProjectUtil.openOrImport(projectPath, null, false);
+
+    if(project == null) {
+      LOG.error("Could not open project "+projectPath);
+      return STATUS_ERROR;
+    }
+
+    DumbService.getInstance(project).waitForSmartMode();
+
+    return validate(project, reportFile);
+  }
+
+  private static int validate(@NotNull final Project project,
+                              @Nullable final File reportFile) {
+    final List<VirtualFile> files = MultiPlatformConsistencyChecker.collectFiles(project);
+
+    LOG.info("Validating "+files.size()+" files");
+
+    final Map<VirtualFile, List<DefracFileValidator.Diagnostic>> results =
+        MultiPlatformConsistencyChecker.check(project, files, new EmptyProgressIndicator());
+    final JSONObject report = MultiPlatformConsistencyChecker.createReport(project, files.size(), results);
+
+    try {
+      writeReport(report, reportFile);
+    } catch(final IOException exception) {
+      LOG.error("Could not write report", exception);
+      return STATUS_ERROR;
+    }
+
+    LOG.info("Found problems in "+results.size()+" files");
+
+    return results.isEmpty() ? STATUS_OK : STATUS_PROBLEMS;
+  }
+
+  private static void writeReport(@NotNull final JSONObject report,
+                                  @Nullable final File reportFile) throws IOException {
+    final String text = JSON.stringify(report, /*prettyPrint=*/true);
+
+    if(reportFile == null) {
+      System.out.println(text);
+      return;
+    }
+
+    BufferedWriter out = null;
+
+    try {
+      out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(reportFile), Charsets.UTF_8));
+      out.write(text);
+    } finally {
+      // a failed flush means a truncated report
+      Closeables.close(out, /*swallowIOException=*/false);
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.lineMarker;
+
+import com.intellij.codeInsight.daemon.LineMarkerInfo;
+import com.intellij.icons.AllIcons;
+import com.intellij.psi.*;
+import com.intellij.util.NotNullFunction;
+import defrac.intellij.DefracBundle;
+import defrac.intellij.facet.DefracFacet;
+import defrac.intellij.gotoDeclaration.RelatedDeclarations;
+import defrac.intellij.psi.DefracFileSummary;
+import defrac.intellij.util.Names;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+
+import static defrac.intellij.psi.DefracPsiUtil.isInjectAnnotation;
+
+/**
+ * Gutter icons that lead from an injector to its injections and back
+ */
+public final class InjectionLineMarkerProvider extends RelatedDeclarationLineMarkerProvider {
+  @NotNull
+  private static final NotNullFunction<PsiElement, List<? extends PsiElement>> INJECTIONS =
+      new NotNullFunction<PsiElement, List<? extends PsiElement>>() {
+        @NotNull
+        @Override
+        public List<? extends PsiElement> fun(final PsiElement element) {
+          return RelatedDeclarations.findInjections((PsiClass)element);
+        }
+      };
+
+  @NotNull
+  private static final NotNullFunction<PsiElement, List<? extends PsiElement>> INJECTORS =
+      new NotNullFunction<PsiElement, List<? extends PsiElement>>() {
+        @NotNull
+        @Override
+        public List<? extends PsiElement> fun(final PsiElement element) {
+          return RelatedDeclarations.findInjectors((PsiClass)element);
+        }
+      };
+
+  public InjectionLineMarkerProvider() {}
+
+  @Override
+  protected void collectLineMarkers(@NotNull final PsiIdentifier identifier,
+                                    @NotNull final PsiElement declaration,
+                                    @NotNull final DefracFacet facet,
+                                    @NotNull final Collection<LineMarkerInfo> result) {
+    if(!(declaration instanceof PsiClass) || facet.isMacroLibrary()) {
+      return;
+    }
+
+    final PsiClass klass = (PsiClass)declaration;
+
+    if(DefracFileSummary.getInstance(klass).mayUseAnyAnnotation(Names.ALL_INJECTS) && hasInjectAnnotation(klass)) {
+      result.add(createLineMarker(
+          identifier,
+          AllIcons.Gutter.ImplementedMethod,
+          DefracBundle.message("lineMarker.injections.tooltip"),
+          DefracBundle.message("lineMarker.injections.title"),
+          INJECTIONS));
+    }
+
+    if(RelatedDeclarations.mayHaveInjectors(klass)) {
+      result.add(createLineMarker(
+          identifier,
+          AllIcons.Gutter.ImplementingMethod,
+          DefracBundle.message("lineMarker.injectors.tooltip"),
+          DefracBundle.message("lineMarker.injectors.title"),
+          INJECTORS));
+    }
+  }
+
+  private static boolean hasInjectAnnotation(@NotNull final PsiClass klass) {
+    final PsiModifierList modifiers = klass.getModifierList();
+
+    if(modifiers == null) {
+      return false;
+    }
+
+    for(final PsiAnnotation annotation : modifiers.getAnnotations()) {
+      if(isInjectAnnotation(annotation)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.lineMarker;
+
+import com.intellij.codeInsight.daemon.LineMarkerInfo;
+import com.intellij.icons.AllIcons;
+import com.intellij.psi.*;
+import com.intellij.util.NotNullFunction;
+import defrac.intellij.DefracBundle;
+import defrac.intellij.facet.DefracFacet;
+import defrac.intellij.gotoDeclaration.RelatedDeclarations;
+import defrac.intellij.psi.DefracFileSummary;
+import defrac.intellij.util.Names;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+
+import static defrac.intellij.psi.DefracPsiUtil.isMacroAnnotation;
+
+/**
+ * Gutter icons that lead from a macro to its implementations and back
+ *
+ * <p>Implementations usually live in a macro library so unlike injections
+ * these icons are shown there as well.
+ */
+public final class MacroLineMarkerProvider extends RelatedDeclarationLineMarkerProvider {
+  @NotNull
+  private static final NotNullFunction<PsiElement, List<? extends PsiElement>> IMPLEMENTATIONS =
+      new NotNullFunction<PsiElement, List<? extends PsiElement>>() {
+        @NotNull
+        @Override
+        public List<? extends PsiElement> fun(final PsiElement element) {
+          return RelatedDeclarations.findMacroImplementations((PsiMethod)element);
+        }
+      };
+
+  @NotNull
+  private static final NotNullFunction<PsiElement, List<? extends PsiElement>> USAGES =
+      new NotNullFunction<PsiElement, List<? extends PsiElement>>() {
+        @NotNull
+        @Override
+        public List<? extends PsiElement> fun(final PsiElement element) {
+          return RelatedDeclarations.findMacroUsages((PsiMethod)element);
+        }
+      };
+
+  public MacroLineMarkerProvider() {}
+
+  @Override
+  protected void collectLineMarkers(@NotNull final PsiIdentifier identifier,
+                                    @NotNull final PsiElement declaration,
+                                    @NotNull final DefracFacet facet,
+                                    @NotNull final Collection<LineMarkerInfo> result) {
+    if(!(declaration instanceof PsiMethod)) {
+      return;
+    }
+
+    final PsiMethod method = (PsiMethod)declaration;
+
+    if(    !facet.isMacroLibrary()
+        && DefracFileSummary.getInstance(method).mayUseAnyAnnotation(Names.ALL_MACROS)
+        && hasMacroAnnotation(method)) {
+      result.add(createLineMarker(
+          identifier,
+          AllIcons.Gutter.ImplementedMethod,
+          DefracBundle.message("lineMarker.macroImplementations.tooltip"),
+          DefracBundle.message("lineMarker.macroImplementations.title"),
+          IMPLEMENTATIONS));
+    }
+
+    if(!method.isConstructor() && RelatedDeclarations.mayHaveMacroUsages(method)) {
+      result.add(createLineMarker(
+          identifier,
+          AllIcons.Gutter.ImplementingMethod,
+          DefracBundle.message("lineMarker.macroUsages.tooltip"),
+          DefracBundle.message("lineMarker.macroUsages.title"),
+          USAGES));
+    }
+  }
+
+  private static boolean hasMacroAnnotation(@NotNull final PsiMethod method) {
+    for(final PsiAnnotation annotation : method.getModifierList().getAnnotations()) {
+      if(isMacroAnnotation(annotation)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.lineMarker;
+
+import com.google.common.collect.Lists;
+import com.intellij.codeHighlighting.Pass;
+import com.intellij.codeInsight.daemon.GutterIconNavigationHandler;
+import com.intellij.codeInsight.daemon.LineMarkerInfo;
+import com.intellij.codeInsight.daemon.LineMarkerProvider;
+import com.intellij.codeInsight.daemon.impl.PsiElementListNavigator;
+import com.intellij.ide.util.DefaultPsiElementCellRenderer;
+import com.intellij.openapi.editor.markup.GutterIconRenderer;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.psi.NavigatablePsiElement;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiIdentifier;
+import com.intellij.psi.PsiNameIdentifierOwner;
+import com.intellij.util.Function;
+import com.intellij.util.NotNullFunction;
+import defrac.intellij.facet.DefracFacet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.event.MouseEvent;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Base of the gutter icons for related defrac declarations
+ *
+ * <p>Markers are only computed in the slow pass which runs in the background. A marker
+ * is placed on the name of a declaration and its targets are resolved on click.
+ */
+abstract class RelatedDeclarationLineMarkerProvider implements LineMarkerProvider {
+  @Nullable
+  @Override
+  public LineMarkerInfo getLineMarkerInfo(@NotNull final PsiElement element) {
+    return null;
+  }
+
+  @Override
+  public void collectSlowLineMarkers(@NotNull final List<PsiElement> elements,
+                                     @NotNull final Collection<LineMarkerInfo> result) {
+    if(elements.isEmpty()) {
+      return;
+    }
+
+    // all elements belong to the same file
+    final DefracFacet facet = DefracFacet.getInstance(elements.get(0));
+
+    if(facet == null) {
+      return;
+    }
+
+    for(final PsiElement element : elements) {
+      ProgressManager.checkCanceled();
+
+      if(!(element instanceof PsiIdentifier)) {
+        continue;
+      }
+
+      final PsiElement parent = element.getParent();
+
+      if(parent instanceof PsiNameIdentifierOwner && ((PsiNameIdentifierOwner)parent).getNameIdentifier() == element) {
+        collectLineMarkers((PsiIdentifier)element, parent, facet, result);
+      }
+    }
+  }
+
+  protected abstract void collectLineMarkers(@NotNull final PsiIdentifier identifier,
+                                             @NotNull final PsiElement declaration,
+                                             @NotNull final DefracFacet facet,
+                                             @NotNull final Collection<LineMarkerInfo> result);
+
+  /**
+   * Creates a marker on the name of a declaration
+   *
+   * @param identifier The name of the declaration
+   * @param icon The gutter icon
+   * @param tooltip The tooltip of the icon
+   * @param title The title of the popup if there are multiple targets
+   * @param targets The function that resolves the targets of a declaration on click
+   * @return The new marker
+   */
+  @NotNull
+  static LineMarkerInfo<PsiElement> createLineMarker(@NotNull final PsiIdentifier identifier,
+                                                     @NotNull final Icon icon,
+                                                     @NotNull final String tooltip,
+                                                     @NotNull final String title,
+                                                     @NotNull final NotNullFunction<PsiElement, List<? extends PsiElement>> targets) {
+    return new LineMarkerInfo<PsiElement>(
+        identifier,
+        identifier.getTextRange(),
+        icon,
+        Pass.UPDATE_OVERRIDEN_MARKERS,
+        new Function<PsiElement, String>() {
+          @Override
+          public String fun(final PsiElement element) {
+            return tooltip;
+          }
+        },
+        new GutterIconNavigationHandler<PsiElement>() {
+          @Override
+          public void navigate(final MouseEvent event, final PsiElement element) {
+            final PsiElement declaration = element.getParent();
+
+            if(declaration == null || DumbService.isDumb(element.getProject())) {
+              return;
+            }
+
+            final List<NavigatablePsiElement> navigatables = Lists.newArrayList();
+
+            for(final PsiElement target : targets.fun(declaration)) {
+              if(target instanceof NavigatablePsiElement) {
+                navigatables.add((NavigatablePsiElement)target);
+              }
+            }
+
+            if(navigatables.isEmpty()) {
+              return;
+            }
+
+            PsiElementListNavigator.openTargets(
+                event,
+                navigatables.toArray(new NavigatablePsiElement[navigatables.size()]),
+                title,
+                /*findUsagesTitle=*/null,
+                new DefaultPsiElementCellRenderer());
+          }
+        },
+        GutterIconRenderer.Alignment.RIGHT);
+  }
+}
@@ -16,24 +16,23 @@
 
 package defrac.intellij.project;
 
-import com.google.common.collect.Sets;
+import com.google.common.collect.Lists;
 import com.intellij.openapi.module.Module;
-import com.intellij.openapi.module.ModuleManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.util.Condition;
 import com.intellij.openapi.vfs.VirtualFile;
 import defrac.intellij.DefracPlatform;
-import defrac.intellij.facet.DefracFacet;
+import defrac.intellij.facet.DefracModuleRegistry;
 import defrac.intellij.util.Names;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 
 /**
  *
@@ -67,22 +66,22 @@ public final class DefracProjectUtil {
       return Module.EMPTY_ARRAY;
     }
 
-    final Module[] modules = ModuleManager.getInstance(project).getModules();
-    final Set<Module> platformModules =
-        Sets.newHashSetWithExpectedSize(modules.length / (DefracPlatform.values().length));
+    final DefracModuleRegistry registry = DefracModuleRegistry.getInstance(project);
+    final Module[] sourceModules = registry.getSourceModules(platform);
+    final Module[] macroModules = registry.getMacroModules(platform);
+    final List<Module> platformModules =
+        Lists.newArrayListWithCapacity(sourceModules.length + macroModules.length);
 
-    for(final Module module : modules) {
-      final DefracFacet facet = DefracFacet.getInstance(module);
-
-      if(facet == null || facet.getPlatform() != platform) {
-        continue;
+    for(final Module module : sourceModules) {
+      if(condition == null || condition.value(module)) {
+        platformModules.add(module);
       }
+    }
 
-      if(condition != null && !condition.value(module)) {
-        continue;
+    for(final Module module : macroModules) {
+      if(condition == null || condition.value(module)) {
+        platformModules.add(module);
       }
-
-      platformModules.add(module);
     }
 
     return platformModules.toArray(new Module[platformModules.size()]);
@@ -91,14 +90,15 @@ public final class DefracProjectUtil {
   @NotNull
   public static List<Module> getModules(final Project project) {
     final List<Module> result = new ArrayList<Module>();
-    final Module[] modules = ModuleManager.getInstance(project).getModules();
-
-    for(final Module module : modules) {
-      final DefracFacet facet = DefracFacet.getInstance(module);
+    final DefracModuleRegistry registry = DefracModuleRegistry.getInstance(project);
 
-      if(facet != null && !facet.getPlatform().isGeneric()) {
-        result.add(module);
+    for(final DefracPlatform platform : DefracPlatform.values()) {
+      if(platform.isGeneric()) {
+        continue;
       }
+
+      Collections.addAll(result, registry.getSourceModules(platform));
+      Collections.addAll(result, registry.getMacroModules(platform));
     }
 
     return result;
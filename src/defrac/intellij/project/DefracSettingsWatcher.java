@@ -0,0 +1,257 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.project;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.openapi.components.AbstractProjectComponent;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.util.Alarm;
+import defrac.intellij.config.DefracConfig;
+import defrac.intellij.config.DefracSettingsChange;
+import defrac.intellij.config.DefracSettingsListener;
+import defrac.intellij.fileType.DefracSettingsFileType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Publishes semantic changes of defrac settings files
+ *
+ * <p>The last known version of each settings file is compared with the new
+ * version shortly after its PSI changes and the difference is published via
+ * {@link DefracSettingsListener#TOPIC}.
+ */
+public final class DefracSettingsWatcher extends AbstractProjectComponent {
+  @NotNull
+  public static DefracSettingsWatcher getInstance(@NotNull final Project project) {
+    return checkNotNull(project.getComponent(DefracSettingsWatcher.class));
+  }
+
+  private static final int DIFF_DELAY_MS = 300;
+
+  @NotNull
+  private final Map<VirtualFile, DefracConfig> snapshots = Maps.newConcurrentMap();
+
+  // only accessed on the event dispatch thread
+  @NotNull
+  private final Set<VirtualFile> queuedFiles = Sets.newLinkedHashSet();
+
+  @NotNull
+  private final Alarm alarm;
+
+  @NotNull
+  private final Map<DefracSettingsChange, SettingsModificationTracker> trackers =
+      new EnumMap<DefracSettingsChange, SettingsModificationTracker>(DefracSettingsChange.class);
+
+  public DefracSettingsWatcher(@NotNull final Project project) {
+    super(project);
+
+    alarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, project);
+
+    for(final DefracSettingsChange change : DefracSettingsChange.values()) {
+      trackers.put(change, new SettingsModificationTracker());
+    }
+  }
+
+  /**
+   * Returns a tracker that is incremented whenever the given kind of setting changes
+   *
+   * @param change The kind of setting
+   * @return The modification tracker
+   */
+  @NotNull
+  public ModificationTracker getModificationTracker(@NotNull final DefracSettingsChange change) {
+    return checkNotNull(trackers.get(change));
+  }
+
+  @Override
+  public void projectOpened() {
+    PsiManager.getInstance(myProject).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+      @Override
+      public void beforeChildrenChange(@NotNull final PsiTreeChangeEvent event) {
+        // make sure we know the old version before the first change happens
+        final PsiFile file = getSettingsFile(event);
+
+        if(file != null && !snapshots.containsKey(file.getVirtualFile())) {
+          final DefracConfig config = readConfig(file);
+
+          if(config != null) {
+            snapshots.put(file.getVirtualFile(), config);
+          }
+        }
+      }
+
+      @Override
+      public void childAdded(@NotNull final PsiTreeChangeEvent event) {
+        queue(getSettingsFile(event));
+      }
+
+      @Override
+      public void childRemoved(@NotNull final PsiTreeChangeEvent event) {
+        queue(getSettingsFile(event));
+      }
+
+      @Override
+      public void childReplaced(@NotNull final PsiTreeChangeEvent event) {
+        queue(getSettingsFile(event));
+      }
+
+      @Override
+      public void childMoved(@NotNull final PsiTreeChangeEvent event) {
+        queue(getSettingsFile(event));
+      }
+
+      @Override
+      public void childrenChanged(@NotNull final PsiTreeChangeEvent event) {
+        queue(getSettingsFile(event));
+      }
+    }, myProject);
+
+    // defrac annotators depend on the targets, nothing else in the
+    // settings affects highlighting of Java files
+    myProject.getMessageBus().connect(myProject).subscribe(DefracSettingsListener.TOPIC, new DefracSettingsListener() {
+      @Override
+      public void settingsChanged(@NotNull final VirtualFile settingsFile,
+                                  @NotNull final Set<DefracSettingsChange> changes) {
+        if(changes.contains(DefracSettingsChange.TARGETS)) {
+          DaemonCodeAnalyzer.getInstance(myProject).restart();
+        }
+      }
+    });
+  }
+
+  @Override
+  public void projectClosed() {
+    alarm.cancelAllRequests();
+    queuedFiles.clear();
+    snapshots.clear();
+  }
+
+  private void queue(@Nullable final PsiFile file) {
+    if(file == null) {
+      return;
+    }
+
+    // PSI events arrive in a write action, possibly many per keystroke, so
+    // we only remember the file and diff it once the changes settle
+    queuedFiles.add(file.getVirtualFile());
+    alarm.cancelAllRequests();
+    alarm.addRequest(new Runnable() {
+      @Override
+      public void run() {
+        processQueuedFiles();
+      }
+    }, DIFF_DELAY_MS);
+  }
+
+  private void processQueuedFiles() {
+    if(myProject.isDisposed()) {
+      return;
+    }
+
+    final VirtualFile[] files = queuedFiles.toArray(new VirtualFile[queuedFiles.size()]);
+    final PsiManager psiManager = PsiManager.getInstance(myProject);
+
+    queuedFiles.clear();
+
+    for(final VirtualFile file : files) {
+      if(!file.isValid()) {
+        snapshots.remove(file);
+        continue;
+      }
+
+      final PsiFile psiFile = psiManager.findFile(file);
+
+      if(psiFile != null) {
+        settingsChanged(psiFile);
+      }
+    }
+  }
+
+  private void settingsChanged(@NotNull final PsiFile file) {
+    final VirtualFile virtualFile = file.getVirtualFile();
+    final DefracConfig config = readConfig(file);
+
+    if(config == null) {
+      // the file is broken while the user is typing, we wait for
+      // the next valid version and diff against the last one we know
+      return;
+    }
+
+    final DefracConfig previousConfig = snapshots.put(virtualFile, config);
+    final Set<DefracSettingsChange> changes = DefracSettingsChange.diff(previousConfig, config);
+
+    if(changes.isEmpty()) {
+      return;
+    }
+
+    for(final DefracSettingsChange change : changes) {
+      checkNotNull(trackers.get(change)).increment();
+    }
+
+    myProject.getMessageBus().syncPublisher(DefracSettingsListener.TOPIC).settingsChanged(virtualFile, changes);
+  }
+
+  @Nullable
+  private static PsiFile getSettingsFile(@NotNull final PsiTreeChangeEvent event) {
+    final PsiFile file = event.getFile();
+
+    if(file == null || file.getVirtualFile() == null) {
+      return null;
+    }
+
+    return file.getFileType() == DefracSettingsFileType.getInstance() ? file : null;
+  }
+
+  @Nullable
+  private static DefracConfig readConfig(@NotNull final PsiFile file) {
+    try {
+      return DefracConfig.fromJson(file);
+    } catch(final IOException ioException) {
+      return null;
+    }
+  }
+
+  private static final class SettingsModificationTracker implements ModificationTracker {
+    @NotNull
+    private final AtomicLong modificationCount = new AtomicLong();
+
+    @Override
+    public long getModificationCount() {
+      return modificationCount.get();
+    }
+
+    void increment() {
+      modificationCount.incrementAndGet();
+    }
+  }
+}
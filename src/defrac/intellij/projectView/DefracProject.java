@@ -26,10 +26,11 @@ import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.util.CachedValueProvider;
 import com.intellij.psi.util.CachedValuesManager;
-import com.intellij.psi.util.PsiModificationTracker;
 import defrac.intellij.DefracPlatform;
 import defrac.intellij.config.DefracConfig;
+import defrac.intellij.config.DefracSettingsChange;
 import defrac.intellij.facet.DefracFacet;
+import defrac.intellij.project.DefracSettingsWatcher;
 import defrac.intellij.util.WeakReference2;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -54,9 +55,10 @@ final class DefracProject {
     final DefracProject result = CachedValuesManager.getCachedValue(file, new CachedValueProvider<DefracProject>() {
       @NotNull
       public Result<DefracProject> compute() {
+        // only a change of the name is visible in the project view
         return Result.create(
-            new DefracProject(settings),
-            file, PsiModificationTracker.MODIFICATION_COUNT
+            new DefracProject(file),
+            DefracSettingsWatcher.getInstance(project).getModificationTracker(DefracSettingsChange.NAME)
         );
       }
     });
@@ -70,6 +72,9 @@ final class DefracProject {
     return result;
   }
 
+  @NotNull
+  private final PsiFile settingsFile;
+
   @NotNull
   private final VirtualFile settings;
 
@@ -79,8 +84,9 @@ final class DefracProject {
   @Nullable
   private String nameCached;
 
-  private DefracProject(@NotNull final VirtualFile settings) {
-    this.settings = settings;
+  private DefracProject(@NotNull final PsiFile settingsFile) {
+    this.settingsFile = settingsFile;
+    this.settings = checkNotNull(settingsFile.getVirtualFile());
   }
 
   public void addModule(@NotNull final Module module) {
@@ -138,7 +144,7 @@ final class DefracProject {
     if(nameCached == null) {
       try {
         nameCached =
-            DefracConfig.fromJson(getVirtualFile()).getName();
+            DefracConfig.fromJson(settingsFile).getName();
       } catch(final IOException ioException) {
         return "<error>";
       }
@@ -30,7 +30,7 @@ import com.intellij.openapi.module.ModuleUtil;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
-import defrac.intellij.facet.DefracFacet;
+import defrac.intellij.facet.DefracModuleRegistry;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
@@ -77,16 +77,16 @@ final class DefracViewProjectNode extends AbstractProjectNode {
     }
 
     final Set<Module> modules = getModules(project);
+    final DefracModuleRegistry registry = DefracModuleRegistry.getInstance(project);
     final Map<String, DefracProject> defracModules = Maps.newLinkedHashMap();
     final ArrayList<Module> normalModules = Lists.newArrayListWithCapacity(0);
 
     for(final Module module : modules) {
-      final DefracFacet facet = DefracFacet.getInstance(module);
+      final File settingsFile = registry.getSettingsFile(module);
 
-      if(facet == null) {
+      if(settingsFile == null) {
         normalModules.add(module);
       } else {
-        final File settingsFile = facet.getSettingsFile();
         final String key = settingsFile.getAbsolutePath();
 
         DefracProject defracProject = defracModules.get(key);
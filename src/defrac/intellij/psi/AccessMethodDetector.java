@@ -16,8 +16,16 @@
 
 package defrac.intellij.psi;
 
+import com.google.common.collect.ImmutableSet;
 import com.intellij.psi.*;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Set;
 
 /**
  *
@@ -26,15 +34,46 @@ public final class AccessMethodDetector extends PsiRecursiveElementVisitor  {
   @NotNull
   private final PsiClass klass;
 
+  @NotNull
+  private Set<String> privateMemberNames = ImmutableSet.of();
+
   private boolean accessMethodFound;
 
-  public AccessMethodDetector(@NotNull final PsiClass klass) {
+  /**
+   * Returns whether or not a class accesses private members of its enclosing classes
+   *
+   * <p>The result depends on code blocks and is cached until the file changes. Each
+   * computation uses a detector of its own so concurrent callers don't share state.
+   */
+  public static boolean requiresAccessMethod(@NotNull final PsiClass klass) {
+    return CachedValuesManager.getCachedValue(klass, new CachedValueProvider<Boolean>() {
+      @Nullable
+      @Override
+      public Result<Boolean> compute() {
+        final PsiFile file = klass.getContainingFile();
+
+        return Result.create(
+            new AccessMethodDetector(klass).detectAccessMethod(),
+            file == null ? PsiModificationTracker.MODIFICATION_COUNT : file);
+      }
+    });
+  }
+
+  private AccessMethodDetector(@NotNull final PsiClass klass) {
     this.klass = klass;
   }
 
-  public boolean requiresAccessMethod() {
-    accessMethodFound = false;
-    klass.accept(this);
+  private boolean detectAccessMethod() {
+    // only private members of the same top-level class are accessible
+    // so references with a different name are never resolved
+    final PsiClass topLevelClass = PsiUtil.getTopLevelClass(klass);
+
+    privateMemberNames = topLevelClass == null ? ImmutableSet.<String>of() : getPrivateMemberNames(topLevelClass);
+
+    if(!privateMemberNames.isEmpty()) {
+      klass.accept(this);
+    }
+
     return accessMethodFound;
   }
 
@@ -51,6 +90,12 @@ public final class AccessMethodDetector extends PsiRecursiveElementVisitor  {
   }
 
   private void visitReferenceExpression(final PsiReferenceExpression expression) {
+    final String name = expression.getReferenceName();
+
+    if(name == null || !privateMemberNames.contains(name)) {
+      return;
+    }
+
     final PsiElement element = expression.resolve();
 
     if(!(element instanceof PsiMember)) {
@@ -69,4 +114,44 @@ public final class AccessMethodDetector extends PsiRecursiveElementVisitor  {
       accessMethodFound = true;
     }
   }
+
+  @NotNull
+  private static Set<String> getPrivateMemberNames(@NotNull final PsiClass topLevelClass) {
+    return CachedValuesManager.getCachedValue(topLevelClass, new CachedValueProvider<Set<String>>() {
+      @Nullable
+      @Override
+      public Result<Set<String>> compute() {
+        final ImmutableSet.Builder<String> names = ImmutableSet.builder();
+
+        collectPrivateMemberNames(topLevelClass, names);
+
+        return Result.<Set<String>>create(names.build(), PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT);
+      }
+    });
+  }
+
+  private static void collectPrivateMemberNames(@NotNull final PsiClass klass,
+                                                @NotNull final ImmutableSet.Builder<String> names) {
+    for(final PsiField field : klass.getFields()) {
+      if(field.hasModifierProperty(PsiModifier.PRIVATE)) {
+        names.add(field.getName());
+      }
+    }
+
+    for(final PsiMethod method : klass.getMethods()) {
+      if(!method.isConstructor() && method.hasModifierProperty(PsiModifier.PRIVATE)) {
+        names.add(method.getName());
+      }
+    }
+
+    for(final PsiClass innerClass : klass.getInnerClasses()) {
+      final String name = innerClass.getName();
+
+      if(name != null && innerClass.hasModifierProperty(PsiModifier.PRIVATE)) {
+        names.add(name);
+      }
+
+      collectPrivateMemberNames(innerClass, names);
+    }
+  }
 }
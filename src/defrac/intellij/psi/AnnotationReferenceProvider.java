@@ -16,66 +16,107 @@
 
 package defrac.intellij.psi;
 
+import com.google.common.collect.ImmutableSet;
 import com.intellij.psi.*;
-import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ProcessingContext;
 import defrac.intellij.DefracPlatform;
 import defrac.intellij.facet.DefracFacet;
+import defrac.intellij.util.Names;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.Set;
+
 import static com.google.common.base.Strings.isNullOrEmpty;
-import static defrac.intellij.psi.DefracPsiUtil.getValue;
-import static defrac.intellij.psi.DefracPsiUtil.isMacroAnnotation;
+import static com.intellij.psi.util.PsiTreeUtil.getParentOfType;
+import static defrac.intellij.psi.DefracPsiUtil.*;
 
 /**
+ * Provides the references of a literal in an {@code @Inject}, {@code @Injector}
+ * or {@code @Macro} annotation
  *
+ * <p>The short name of the annotation is checked before anything is resolved so
+ * literals of unrelated annotations are rejected at once.
  */
-public final class MacroReferenceProvider extends PsiReferenceProvider {
-  public MacroReferenceProvider() {}
+public final class AnnotationReferenceProvider extends PsiReferenceProvider {
+  @NotNull
+  private static final Set<String> ANNOTATION_NAMES = DefracFileSummary.shortNamesOf(ImmutableSet.<String>builder().
+      addAll(Names.ALL_INJECTS).
+      addAll(Names.ALL_MACROS).
+      add(Names.defrac_annotation_Injector).
+      build());
+
+  public AnnotationReferenceProvider() {}
 
   @NotNull
   @Override
   public PsiReference[] getReferencesByElement(@NotNull final PsiElement element,
                                                @Nullable final ProcessingContext context) {
-    final DefracFacet facet = DefracFacet.getInstance(element);
+    // (1) get annotation
+    final PsiAnnotation annotation =
+        getParentOfType(element, PsiAnnotation.class, /*strict=*/false);
 
-    if(facet == null || facet.isMacroLibrary()) {
+    if(annotation == null || !isCandidate(annotation)) {
       return PsiReference.EMPTY_ARRAY;
     }
 
-    final PsiFile file = element.getContainingFile();
+    // (2) get literal
+    final String value = getValue((PsiLiteralExpression)element);
 
-    if(file == null) {
+    if(isNullOrEmpty(value)) {
       return PsiReference.EMPTY_ARRAY;
     }
 
-    // (1) get literal
-    final String value = getValue((PsiLiteralExpression)element);
+    final DefracFacet facet = DefracFacet.getInstance(element);
 
-    if(isNullOrEmpty(value)) {
+    if(facet == null || facet.isMacroLibrary()) {
       return PsiReference.EMPTY_ARRAY;
     }
 
-    // (2) get annotation
-    final PsiAnnotation annotation =
-        PsiTreeUtil.getParentOfType(element, PsiAnnotation.class, /*strict=*/false);
-
     // (3) is this our annotation?
-    if(!isMacroAnnotation(annotation)) {
-      return PsiReference.EMPTY_ARRAY;
+    final String qualifiedName = annotation.getQualifiedName();
+
+    if(isInjectAnnotation(qualifiedName, /*nameOfAnnotation=*/null)) {
+      return new PsiReference[] {
+          new InjectionClassReference(
+              value,
+              (PsiLiteralExpression)element,
+              DefracPlatform.byInjectAnnotation(qualifiedName))
+      };
+    } else if(isInjectorAnnotation(qualifiedName)) {
+      return new PsiReference[] {
+          new InjectorClassReference(
+              value,
+              (PsiLiteralExpression)element,
+              facet.getPlatform())
+      };
+    } else if(isMacroAnnotation(qualifiedName, /*nameOfAnnotation=*/null)) {
+      return getMacroReferences((PsiLiteralExpression)element, value, DefracPlatform.byMacroAnnotation(qualifiedName));
     }
 
-    final DefracPlatform targetPlatform =
-        DefracPlatform.byMacroAnnotation(checkNotNull(annotation.getQualifiedName()));
+    return PsiReference.EMPTY_ARRAY;
+  }
+
+  @Override
+  public boolean acceptsTarget(@NotNull final PsiElement target) {
+    return target instanceof PsiLiteralExpression;
+  }
+
+  private static boolean isCandidate(@NotNull final PsiAnnotation annotation) {
+    final PsiJavaCodeReferenceElement reference = annotation.getNameReferenceElement();
+    return reference != null && ANNOTATION_NAMES.contains(reference.getReferenceName());
+  }
 
+  @NotNull
+  private static PsiReference[] getMacroReferences(@NotNull final PsiLiteralExpression element,
+                                                   @NotNull final String value,
+                                                   @NotNull final DefracPlatform targetPlatform) {
     final int indexOfHash = value.lastIndexOf('#');
 
     if(indexOfHash == -1) {
       return new PsiReference[] {
           new MacroClassReference(
-              (PsiLiteralExpression)element,
+              element,
               // We ignore the first ", so start-offset is 1
               1,
               // We ignore the last ", so length is fine (end is exclusive)
@@ -86,7 +127,7 @@ public final class MacroReferenceProvider extends PsiReferenceProvider {
     }
 
     final MacroClassReference classReference = new MacroClassReference(
-        (PsiLiteralExpression) element,
+        element,
         // We ignore the first "
         1,
         // We ignore the # so the length is the index of the hash
@@ -101,7 +142,7 @@ public final class MacroReferenceProvider extends PsiReferenceProvider {
         classReference,
         new MacroMethodReference(
             classReference,
-            (PsiLiteralExpression)element,
+            element,
             // We start without the #
             indexOfHash + 2,
             // We ignore the # so the length is the index of the hash
@@ -112,9 +153,4 @@ public final class MacroReferenceProvider extends PsiReferenceProvider {
         )
     };
   }
-
-  @Override
-  public boolean acceptsTarget(@NotNull final PsiElement target) {
-    return target instanceof PsiLiteralExpression;
-  }
 }
@@ -19,6 +19,7 @@ package defrac.intellij.psi;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.*;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.IncorrectOperationException;
 import defrac.intellij.DefracPlatform;
@@ -32,6 +33,16 @@ abstract class ClassReferenceBase extends PsiReferenceBase<PsiLiteralExpression>
   @NotNull
   static final Object[] NO_VARIANTS = new Object[0];
 
+  @NotNull
+  private static final ResolveCache.PolyVariantResolver<ClassReferenceBase> RESOLVER =
+      new ResolveCache.PolyVariantResolver<ClassReferenceBase>() {
+        @NotNull
+        @Override
+        public ResolveResult[] resolve(@NotNull final ClassReferenceBase reference, final boolean incompleteCode) {
+          return reference.resolveClasses();
+        }
+      };
+
   @NotNull
   protected final DefracPlatform platform;
 
@@ -76,6 +87,13 @@ abstract class ClassReferenceBase extends PsiReferenceBase<PsiLiteralExpression>
   @NotNull
   @Override
   public final ResolveResult[] multiResolve(final boolean incompleteCode) {
+    return ResolveCache.
+        getInstance(getElement().getProject()).
+        resolveWithCaching(this, RESOLVER, /*needToPreventRecursion=*/false, incompleteCode);
+  }
+
+  @NotNull
+  private ResolveResult[] resolveClasses() {
     final Project project = getElement().getProject();
     final GlobalSearchScope scope = getSearchScope(project);
     final PsiElement[] results = JavaPsiFacade.getInstance(project).findClasses(getValue(), scope);
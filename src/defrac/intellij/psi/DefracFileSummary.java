@@ -0,0 +1,186 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.psi;
+
+import com.google.common.collect.ImmutableSet;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.*;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import defrac.intellij.util.Names;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Summary of the defrac annotations and imports of a file
+ *
+ * <p>Annotations are recorded by their short name since nothing is resolved. A summary
+ * may therefore claim an annotation that belongs to a different package but it never
+ * misses one. A summary is cached on its file until the file changes.
+ */
+public final class DefracFileSummary {
+  @NotNull
+  private static final String DEFRAC_PACKAGE_PREFIX = "defrac.";
+
+  @NotNull
+  private static final Set<String> DEFRAC_ANNOTATION_NAMES = shortNamesOf(ImmutableSet.<String>builder().
+      addAll(Names.ALL_INJECTS).
+      addAll(Names.ALL_MACROS).
+      addAll(Names.ALL_UNSUPPORTED).
+      add(Names.defrac_annotation_Injector).
+      add(Names.defrac_dni_Intrinsic).
+      add(Names.defrac_dni_ReadOnly).
+      add(Names.defrac_dni_WriteOnly).
+      build());
+
+  @NotNull
+  private static final DefracFileSummary EMPTY = new DefracFileSummary(ImmutableSet.<String>of(), /*importsDefracPackage=*/false);
+
+  @NotNull
+  public static DefracFileSummary getInstance(@NotNull final PsiElement element) {
+    final PsiFile file = element.getContainingFile();
+    return file == null ? EMPTY : getInstance(file);
+  }
+
+  @NotNull
+  public static DefracFileSummary getInstance(@NotNull final PsiFile file) {
+    if(!(file instanceof PsiJavaFile)) {
+      return EMPTY;
+    }
+
+    return CachedValuesManager.getCachedValue(file, new CachedValueProvider<DefracFileSummary>() {
+      @Nullable
+      @Override
+      public Result<DefracFileSummary> compute() {
+        return Result.create(summarize((PsiJavaFile)file), file);
+      }
+    });
+  }
+
+  @NotNull
+  private final Set<String> annotationNames;
+
+  private final boolean importsDefracPackage;
+
+  private DefracFileSummary(@NotNull final Set<String> annotationNames,
+                            final boolean importsDefracPackage) {
+    this.annotationNames = annotationNames;
+    this.importsDefracPackage = importsDefracPackage;
+  }
+
+  /**
+   * Returns whether or not the file uses any defrac annotation
+   */
+  public boolean hasDefracAnnotations() {
+    return !annotationNames.isEmpty();
+  }
+
+  /**
+   * Returns whether or not the file imports a defrac package or belongs to one
+   */
+  public boolean importsDefracPackage() {
+    return importsDefracPackage;
+  }
+
+  /**
+   * Returns whether or not the file may use the given annotation
+   *
+   * @param qualifiedName The qualified name of a defrac annotation
+   * @return {@code false} if the annotation is not used in the file
+   */
+  public boolean mayUseAnnotation(@NotNull final String qualifiedName) {
+    return annotationNames.contains(StringUtil.getShortName(qualifiedName));
+  }
+
+  /**
+   * Returns whether or not the file may use any of the given annotations
+   *
+   * @param qualifiedNames The qualified names of defrac annotations
+   * @return {@code false} if none of the annotations is used in the file
+   */
+  public boolean mayUseAnyAnnotation(@NotNull final Collection<String> qualifiedNames) {
+    if(annotationNames.isEmpty()) {
+      return false;
+    }
+
+    for(final String qualifiedName : qualifiedNames) {
+      if(mayUseAnnotation(qualifiedName)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  @NotNull
+  private static DefracFileSummary summarize(@NotNull final PsiJavaFile file) {
+    final ImmutableSet.Builder<String> annotationNames = ImmutableSet.builder();
+
+    for(final PsiAnnotation annotation : PsiTreeUtil.findChildrenOfType(file, PsiAnnotation.class)) {
+      final PsiJavaCodeReferenceElement reference = annotation.getNameReferenceElement();
+      final String name = reference == null ? null : reference.getReferenceName();
+
+      if(name != null && DEFRAC_ANNOTATION_NAMES.contains(name)) {
+        annotationNames.add(name);
+      }
+    }
+
+    final Set<String> names = annotationNames.build();
+    final boolean importsDefracPackage = isDefracPackage(file.getPackageName()) || hasDefracImport(file);
+
+    return names.isEmpty() && !importsDefracPackage
+        ? EMPTY
+        : new DefracFileSummary(names, importsDefracPackage);
+  }
+
+  private static boolean hasDefracImport(@NotNull final PsiJavaFile file) {
+    final PsiImportList importList = file.getImportList();
+
+    if(importList == null) {
+      return false;
+    }
+
+    for(final PsiImportStatementBase importStatement : importList.getAllImportStatements()) {
+      final PsiJavaCodeReferenceElement reference = importStatement.getImportReference();
+
+      if(reference != null && isDefracPackage(reference.getQualifiedName())) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static boolean isDefracPackage(@Nullable final String qualifiedName) {
+    return qualifiedName != null && qualifiedName.startsWith(DEFRAC_PACKAGE_PREFIX);
+  }
+
+  @NotNull
+  static Set<String> shortNamesOf(@NotNull final Set<String> qualifiedNames) {
+    final ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+
+    for(final String qualifiedName : qualifiedNames) {
+      builder.add(StringUtil.getShortName(qualifiedName));
+    }
+
+    return builder.build();
+  }
+}
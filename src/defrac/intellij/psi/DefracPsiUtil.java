@@ -19,15 +19,15 @@ package defrac.intellij.psi;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.Ref;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.source.PsiClassReferenceType;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.searches.ReferencesSearch;
 import com.intellij.psi.util.*;
-import com.intellij.util.Processor;
 import com.intellij.util.Query;
 import defrac.intellij.DefracPlatform;
+import defrac.intellij.index.DefracAnnotationIndex;
+import defrac.intellij.sdk.DefracSdkClasses;
 import defrac.intellij.util.Names;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -37,8 +37,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
-import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.intellij.psi.util.PsiTreeUtil.getParentOfType;
 import static com.intellij.psi.util.PsiTypesUtil.compareTypes;
 import static com.intellij.psi.util.PsiUtil.mapElements;
 import static com.intellij.psi.util.PsiUtil.setModifierProperty;
@@ -86,10 +86,7 @@ public final class DefracPsiUtil {
     }
 
     final PsiClass macro =
-        JavaPsiFacade.
-            getInstance(klass.getProject()).
-            findClass(Names.defrac_compiler_macro_Macro, GlobalSearchScope.allScope(klass.getProject()));
-
+        DefracSdkClasses.getInstance(klass.getProject()).getMacroClass();
 
     if(macro == null) {
       return false;
@@ -243,30 +240,11 @@ public final class DefracPsiUtil {
     // there is no check for type parameters here due to erasure
     // and all casts are at call site
 
-    final MethodSignature thisSignature = thisMethod.getSignature(PsiSubstitutor.EMPTY);
-    final MethodSignature thatSignature = thatMethod.getSignature(PsiSubstitutor.EMPTY);
-
-    if(thisSignature.isConstructor() != thatSignature.isConstructor()) {
-      return false;
-    }
-
-    final PsiType[] thisTypes = thisSignature.getParameterTypes();
-    final PsiType[] thatTypes = thatSignature.getParameterTypes();
-
-    if(thisTypes.length != thatTypes.length) {
+    if(thisMethod.isConstructor() != thatMethod.isConstructor()) {
       return false;
     }
 
-    for(int i = 0; i < thisTypes.length; ++i) {
-      final PsiType thisType = thisTypes[i];
-      final PsiType thatType = thatTypes[i];
-
-      if(!compareBytecodeTypes(thisType, thatType)) {
-        return false;
-      }
-    }
-
-    return true;
+    return DescriptorUtil.getParameterDescriptor(thisMethod).equals(DescriptorUtil.getParameterDescriptor(thatMethod));
   }
 
   public static boolean compareBytecodeTypes(@Nullable PsiType[] a,
@@ -739,28 +717,31 @@ public final class DefracPsiUtil {
       @Nullable
       @Override
       public Result<PsiClass> compute() {
-        final Query<PsiReference> query = ReferencesSearch.search(klass);
-        final Ref<PsiClass> ref = Ref.create();
-
-        query.forEach(new Processor<PsiReference>() {
-          @Override
-          public boolean process(final PsiReference reference) {
-            if(reference instanceof InjectionClassReference) {
-              ref.set(PsiTreeUtil.getParentOfType(reference.getElement(), PsiClass.class));
-              return false;
-            }
-
-            return true;
-          }
-        });
+        // the provider is reused on recompute, so the name must not be
+        // captured or a renamed class would be looked up by its old name
+        final String qualifiedName = klass.getQualifiedName();
+
+        if(qualifiedName == null) {
+          return Result.create(null, PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT);
+        }
 
-        final PsiClass result = ref.get();
+        final Project project = klass.getProject();
+        final List<PsiAnnotation> annotations =
+            DefracAnnotationIndex.findAnnotations(
+                project, qualifiedName, Names.ALL_INJECTS, GlobalSearchScope.projectScope(project));
 
-        if(result == null) {
-          return Result.create(null, PsiModificationTracker.MODIFICATION_COUNT);
-        } else {
-          return Result.create(result, checkNotNull(result.getModifierList()));
+        PsiClass result = null;
+
+        for(final PsiAnnotation annotation : annotations) {
+          final InjectionClassReference reference = findReference(annotation, InjectionClassReference.class);
+
+          if(reference != null && reference.isReferenceTo(klass)) {
+            result = getParentOfType(annotation, PsiClass.class);
+            break;
+          }
         }
+
+        return Result.create(result, PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT);
       }
     });
   }
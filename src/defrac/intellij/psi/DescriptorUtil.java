@@ -0,0 +1,180 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.psi;
+
+import com.intellij.psi.*;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.ClassUtil;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.TypeConversionUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Erased JVM descriptors of methods and fields
+ *
+ * <p>Two members have equal descriptors if {@link DefracPsiUtil#compareBytecodeTypes(PsiType, PsiType)}
+ * considers their types equal. Type parameters are erased to {@code java.lang.Object} regardless
+ * of their bounds and unresolved classes are kept apart by their name. Descriptors are cached
+ * until the Java structure of the project changes.
+ */
+public final class DescriptorUtil {
+  @NotNull
+  private static final String JAVA_LANG_OBJECT = "Ljava/lang/Object;";
+
+  /**
+   * Returns the descriptor of a method like {@code (ILjava/lang/String;)V}
+   *
+   * <p>Constructors have a return type of {@code V}.
+   */
+  @NotNull
+  public static String getDescriptor(@NotNull final PsiMethod method) {
+    return CachedValuesManager.getCachedValue(method, new CachedValueProvider<String>() {
+      @Nullable
+      @Override
+      public Result<String> compute() {
+        return Result.create(computeDescriptor(method), PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT);
+      }
+    });
+  }
+
+  /**
+   * Returns the descriptor of a field like {@code [Ljava/lang/String;}
+   */
+  @NotNull
+  public static String getDescriptor(@NotNull final PsiField field) {
+    return CachedValuesManager.getCachedValue(field, new CachedValueProvider<String>() {
+      @Nullable
+      @Override
+      public Result<String> compute() {
+        return Result.create(getDescriptor(field.getType()), PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT);
+      }
+    });
+  }
+
+  /**
+   * Returns the parameter part of a method descriptor like {@code (ILjava/lang/String;)}
+   */
+  @NotNull
+  public static String getParameterDescriptor(@NotNull final PsiMethod method) {
+    final String descriptor = getDescriptor(method);
+    return descriptor.substring(0, descriptor.indexOf(')') + 1);
+  }
+
+  /**
+   * Returns the return type part of a method descriptor like {@code V}
+   */
+  @NotNull
+  public static String getReturnTypeDescriptor(@NotNull final PsiMethod method) {
+    final String descriptor = getDescriptor(method);
+    return descriptor.substring(descriptor.indexOf(')') + 1);
+  }
+
+  /**
+   * Returns the erased descriptor of a type like {@code Ljava/util/List;}
+   *
+   * <p>The descriptor of a type is not cached.
+   */
+  @NotNull
+  public static String getDescriptor(@NotNull final PsiType type) {
+    final StringBuilder descriptor = new StringBuilder();
+    appendDescriptor(descriptor, type);
+    return descriptor.toString();
+  }
+
+  @NotNull
+  private static String computeDescriptor(@NotNull final PsiMethod method) {
+    final StringBuilder descriptor = new StringBuilder("(");
+
+    for(final PsiParameter parameter : method.getParameterList().getParameters()) {
+      appendDescriptor(descriptor, parameter.getType());
+    }
+
+    descriptor.append(')');
+
+    final PsiType returnType = method.getReturnType();
+
+    if(returnType == null) {
+      descriptor.append('V');
+    } else {
+      appendDescriptor(descriptor, returnType);
+    }
+
+    return descriptor.toString();
+  }
+
+  private static void appendDescriptor(@NotNull final StringBuilder descriptor,
+                                       @NotNull final PsiType type) {
+    if(type instanceof PsiPrimitiveType) {
+      descriptor.append(getPrimitiveDescriptor((PsiPrimitiveType)type));
+    } else if(type instanceof PsiArrayType) {
+      // includes varargs since a PsiEllipsisType is a PsiArrayType
+      descriptor.append('[');
+      appendDescriptor(descriptor, ((PsiArrayType)type).getComponentType());
+    } else if(type instanceof PsiClassType) {
+      final PsiClass klass = ((PsiClassType)type).resolve();
+
+      if(klass instanceof PsiTypeParameter) {
+        descriptor.append(JAVA_LANG_OBJECT);
+      } else if(klass == null) {
+        // keep unresolved types apart by their name
+        descriptor.append("L?").append(((PsiClassType)type).getClassName()).append(';');
+      } else {
+        final String jvmClassName = ClassUtil.getJVMClassName(klass);
+
+        if(jvmClassName == null) {
+          descriptor.append("L?").append(klass.getName()).append(';');
+        } else {
+          descriptor.append('L').append(jvmClassName.replace('.', '/')).append(';');
+        }
+      }
+    } else {
+      final PsiType erasure = TypeConversionUtil.erasure(type);
+
+      if(erasure == null || erasure == type) {
+        descriptor.append(JAVA_LANG_OBJECT);
+      } else {
+        appendDescriptor(descriptor, erasure);
+      }
+    }
+  }
+
+  private static char getPrimitiveDescriptor(@NotNull final PsiPrimitiveType type) {
+    if(PsiType.BOOLEAN.equals(type)) {
+      return 'Z';
+    } else if(PsiType.BYTE.equals(type)) {
+      return 'B';
+    } else if(PsiType.CHAR.equals(type)) {
+      return 'C';
+    } else if(PsiType.SHORT.equals(type)) {
+      return 'S';
+    } else if(PsiType.INT.equals(type)) {
+      return 'I';
+    } else if(PsiType.LONG.equals(type)) {
+      return 'J';
+    } else if(PsiType.FLOAT.equals(type)) {
+      return 'F';
+    } else if(PsiType.DOUBLE.equals(type)) {
+      return 'D';
+    } else {
+      return 'V';
+    }
+  }
+
+  private DescriptorUtil() {}
+}
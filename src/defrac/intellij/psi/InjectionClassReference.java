@@ -19,15 +19,17 @@ package defrac.intellij.psi;
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.*;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.searches.AllClassesSearch;
 import com.intellij.psi.search.searches.ClassInheritorsSearch;
+import com.intellij.psi.search.searches.DirectClassInheritorsSearch;
 import com.intellij.util.ArrayUtil;
 import com.intellij.util.IconUtil;
-import com.intellij.util.Query;
+import com.intellij.util.Processor;
 import defrac.intellij.DefracPlatform;
 import defrac.intellij.facet.DefracFacet;
 import org.jetbrains.annotations.Contract;
@@ -36,8 +38,6 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.LinkedList;
-import java.util.List;
 
 import static com.intellij.psi.util.PsiTreeUtil.getParentOfType;
 import static defrac.intellij.psi.DefracPsiUtil.*;
@@ -77,67 +77,97 @@ public final class InjectionClassReference extends ClassReferenceBase {
   @NotNull
   @Override
   public Object[] getVariants() {
-    // all classes of current platform with same type closure are eligible
+    // variants are streamed by the InjectionCompletionContributor
+    return NO_VARIANTS;
+  }
+
+  /**
+   * Passes all eligible injections to a processor as they are found
+   *
+   * <p>All classes of the current platform with the same type closure are eligible.
+   *
+   * @param processor The processor; stops if it returns {@code false}
+   */
+  public void processVariants(@NotNull final Processor<LookupElement> processor) {
     final Project project = getElement().getProject();
     final DefracFacet facet = DefracFacet.getInstance(getElement());
 
-    if(facet == null) {
-      return NO_VARIANTS;
+    if(facet == null || DumbService.isDumb(project)) {
+      return;
     }
 
     final GlobalSearchScope scope = facet.getMultiPlatformClassSearchScope(platform);
-    final PsiJavaFile file = (PsiJavaFile)getElement().getContainingFile();
-
-    if(file == null) {
-      return NO_VARIANTS;
-    }
 
     final PsiClass enclosingClass =
         getParentOfType(getElement(), PsiClass.class, false);
 
     if(enclosingClass == null) {
-      return NO_VARIANTS;
+      return;
     }
 
     final PsiClassType[] extendsTypes = enclosingClass.getExtendsListTypes();
     final PsiClassType[] implementsTypes = enclosingClass.getImplementsListTypes();
-    final PsiClassType[] baseTypes = ArrayUtil.mergeArrays(extendsTypes, implementsTypes);
+    final Processor<PsiClass> classProcessor = createClassProcessor(processor, enclosingClass,
+        extendsTypes.length    == 0 ? null : extendsTypes,
+        implementsTypes.length == 0 ? null : implementsTypes);
+
+    final PsiClass declaredBase = findDeclaredBase(enclosingClass);
 
-    final Query<PsiClass> query;
+    if(declaredBase != null) {
+      // Candidates must declare the same supertypes so they are all direct
+      // inheritors of any declared one. The stub index behind this search covers
+      // sources and compiled classes alike, candidates are verified by the processor.
+      DirectClassInheritorsSearch.search(declaredBase, scope,
+          /*checkInheritance=*/false, /*includeAnonymous=*/false).forEach(classProcessor);
+      return;
+    }
+
+    final PsiClassType[] baseTypes = ArrayUtil.mergeArrays(extendsTypes, implementsTypes);
 
     if(baseTypes.length == 0) {
       // There is no filter (no bases or interfaces the injection must implement)
       // so we offer the user everything we got.
-      query = AllClassesSearch.search(scope, project);
-    } else {
-      PsiClass base = null;
-
-      for(final PsiClassType baseType : baseTypes) {
-        final PsiClass resolved = baseType.resolve();
-        if(resolved != null) {
-          base = resolved;
-          break;
-        }
+      AllClassesSearch.search(scope, project).forEach(classProcessor);
+      return;
+    }
+
+    // implicit supertypes only, like java.lang.Enum
+    for(final PsiClassType baseType : baseTypes) {
+      final PsiClass base = baseType.resolve();
+
+      if(base != null) {
+        ClassInheritorsSearch.search(base, scope, true, true).forEach(classProcessor);
+        return;
       }
+    }
+  }
+
+  @Nullable
+  private static PsiClass findDeclaredBase(@NotNull final PsiClass klass) {
+    final PsiReferenceList[] lists = { klass.getExtendsList(), klass.getImplementsList() };
 
-      if(base == null) {
-        return NO_VARIANTS;
+    for(final PsiReferenceList list : lists) {
+      if(list == null) {
+        continue;
       }
 
-      query = ClassInheritorsSearch.search(base, scope, true, true);
+      for(final PsiClassType type : list.getReferencedTypes()) {
+        final PsiClass base = type.resolve();
+
+        if(base != null) {
+          return base;
+        }
+      }
     }
 
-    return variantsViaQuery(query, enclosingClass,
-        extendsTypes.length    == 0 ? null : extendsTypes,
-        implementsTypes.length == 0 ? null : implementsTypes);
+    return null;
   }
 
   @NotNull
-  private Object[] variantsViaQuery(@NotNull final Query<PsiClass> query,
-                                    @Nullable final PsiClass exclude,
-                                    @Nullable final PsiClassType[] typesToExtend,
-                                    @Nullable final PsiClassType[] typesToImplement) {
-    final List<LookupElement> variants = new LinkedList<LookupElement>();
+  private Processor<PsiClass> createClassProcessor(@NotNull final Processor<LookupElement> processor,
+                                                   @Nullable final PsiClass exclude,
+                                                   @Nullable final PsiClassType[] typesToExtend,
+                                                   @Nullable final PsiClassType[] typesToImplement) {
     final Project project = getElement().getProject();
     final String qnameOfExclude = exclude == null ? null : exclude.getQualifiedName();
 
@@ -149,32 +179,34 @@ public final class InjectionClassReference extends ClassReferenceBase {
       sort(typesToImplement);
     }
 
-    for(final PsiClass klass : query.findAll()) {
-      if(klass == null || (qnameOfExclude != null && qnameOfExclude.equals(klass.getQualifiedName()))) {
-        continue;
-      }
+    return new Processor<PsiClass>() {
+      @Override
+      public boolean process(final PsiClass klass) {
+        if(klass == null || (qnameOfExclude != null && qnameOfExclude.equals(klass.getQualifiedName()))) {
+          return true;
+        }
 
-      if(typesToExtend != null && !typesEqual(typesToExtend, klass.getExtendsListTypes())) {
-        continue;
-      }
+        if(typesToExtend != null && !typesEqual(typesToExtend, klass.getExtendsListTypes())) {
+          return true;
+        }
 
-      if(typesToImplement != null && !typesEqual(typesToImplement, klass.getImplementsListTypes())) {
-        continue;
-      }
+        if(typesToImplement != null && !typesEqual(typesToImplement, klass.getImplementsListTypes())) {
+          return true;
+        }
 
-      try {
-        variants.add(
-            LookupElementBuilder.create(klass).
-                withInsertHandler(QualifiedClassNameInsertHandler.INSTANCE).
-                withIcon(IconUtil.getIcon(klass.getContainingFile().getVirtualFile(), 0, project)).
-                withTypeText(klass.getContainingFile().getName())
-        );
-      } catch(final PsiInvalidElementAccessException invalidElementAccess) {
-        LOG.error(invalidElementAccess);
+        try {
+          return processor.process(
+              LookupElementBuilder.create(klass).
+                  withInsertHandler(QualifiedClassNameInsertHandler.INSTANCE).
+                  withIcon(IconUtil.getIcon(klass.getContainingFile().getVirtualFile(), 0, project)).
+                  withTypeText(klass.getContainingFile().getName())
+          );
+        } catch(final PsiInvalidElementAccessException invalidElementAccess) {
+          LOG.error(invalidElementAccess);
+          return true;
+        }
       }
-    }
-
-    return variants.toArray(new Object[variants.size()]);
+    };
   }
 
   private boolean typesEqual(@NotNull final PsiClassType[] thisType,
@@ -185,6 +217,13 @@ public final class InjectionClassReference extends ClassReferenceBase {
 
     sort(thatType);
 
+    // short names are cheap, only resolve if they match
+    for(int i = 0; i < thisType.length; ++i) {
+      if(!thisType[i].getClassName().equals(thatType[i].getClassName())) {
+        return false;
+      }
+    }
+
     for(int i = 0; i < thisType.length; ++i) {
       if(!compareBytecodeTypes(thisType[i], thatType[i])) {
         return false;
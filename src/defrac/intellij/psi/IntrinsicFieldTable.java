@@ -0,0 +1,75 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.psi;
+
+import com.google.common.collect.ImmutableList;
+import com.intellij.openapi.util.Pair;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static defrac.intellij.psi.DefracPsiUtil.intrinsicNameOf;
+
+/**
+ * Fields of a class with an intrinsic name including inherited ones
+ *
+ * <p>A table is cached on its class until the Java structure changes.
+ */
+public final class IntrinsicFieldTable {
+  @NotNull
+  public static IntrinsicFieldTable getInstance(@NotNull final PsiClass klass) {
+    return CachedValuesManager.getCachedValue(klass, new CachedValueProvider<IntrinsicFieldTable>() {
+      @Nullable
+      @Override
+      public Result<IntrinsicFieldTable> compute() {
+        return Result.create(new IntrinsicFieldTable(klass), PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT);
+      }
+    });
+  }
+
+  @NotNull
+  private final List<Pair<PsiField, String>> fields;
+
+  private IntrinsicFieldTable(@NotNull final PsiClass klass) {
+    final ImmutableList.Builder<Pair<PsiField, String>> builder = ImmutableList.builder();
+
+    for(final PsiField field : klass.getAllFields()) {
+      final String intrinsicName = intrinsicNameOf(field);
+
+      if(!isNullOrEmpty(intrinsicName)) {
+        builder.add(Pair.create(field, intrinsicName));
+      }
+    }
+
+    fields = builder.build();
+  }
+
+  /**
+   * Returns each field with an intrinsic name paired with that name
+   */
+  @NotNull
+  public List<Pair<PsiField, String>> getFields() {
+    return fields;
+  }
+}
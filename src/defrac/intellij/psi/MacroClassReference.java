@@ -21,7 +21,6 @@ import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.TextRange;
-import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiInvalidElementAccessException;
 import com.intellij.psi.PsiLiteralExpression;
@@ -31,7 +30,7 @@ import com.intellij.util.IconUtil;
 import com.intellij.util.Query;
 import defrac.intellij.DefracPlatform;
 import defrac.intellij.facet.DefracFacet;
-import defrac.intellij.util.Names;
+import defrac.intellij.sdk.DefracSdkClasses;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.LinkedList;
@@ -63,8 +62,7 @@ public final class MacroClassReference extends ClassReferenceBase {
     }
 
     final PsiClass macro =
-        JavaPsiFacade.getInstance(project).findClass(
-            Names.defrac_compiler_macro_Macro, GlobalSearchScope.allScope(project));
+        DefracSdkClasses.getInstance(project).getMacroClass();
 
     if(macro == null) {
       return NO_VARIANTS;
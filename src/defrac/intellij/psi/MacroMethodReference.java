@@ -21,16 +21,17 @@ import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.*;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import defrac.intellij.DefracPlatform;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.intellij.psi.util.PsiTreeUtil.getParentOfType;
 import static defrac.intellij.psi.DefracPsiUtil.findReference;
 import static defrac.intellij.psi.DefracPsiUtil.isMacroAnnotation;
 
@@ -38,6 +39,16 @@ import static defrac.intellij.psi.DefracPsiUtil.isMacroAnnotation;
  *
  */
 public final class MacroMethodReference extends PsiReferenceBase<PsiLiteralExpression> implements PsiPolyVariantReference, DefracReference {
+  @NotNull
+  private static final ResolveCache.PolyVariantResolver<MacroMethodReference> RESOLVER =
+      new ResolveCache.PolyVariantResolver<MacroMethodReference>() {
+        @NotNull
+        @Override
+        public ResolveResult[] resolve(@NotNull final MacroMethodReference reference, final boolean incompleteCode) {
+          return reference.resolveMethods(incompleteCode);
+        }
+      };
+
   @Nullable
   @Contract("null -> null")
   public static MacroMethodReference getInstance(@Nullable final PsiAnnotation annotation) {
@@ -93,8 +104,10 @@ public final class MacroMethodReference extends PsiReferenceBase<PsiLiteralExpre
   @NotNull
   @Override
   public Object[] getVariants() {
+    // only macros accepting the parameters of the annotated method are eligible
+    final PsiMethod annotatedMethod = getParentOfType(getElement(), PsiMethod.class, /*strict=*/false);
     final ResolveResult[] parentResults = parent.multiResolve();
-    final List<LookupElement> variants = new LinkedList<LookupElement>();
+    final List<LookupElement> variants = Lists.newArrayList();
 
     for(final ResolveResult parentResult : parentResults) {
       final PsiElement parentElement = parentResult.getElement();
@@ -103,9 +116,12 @@ public final class MacroMethodReference extends PsiReferenceBase<PsiLiteralExpre
         continue;
       }
 
-      final PsiClass klass = (PsiClass)parentElement;
+      final MacroMethodTable table = MacroMethodTable.getInstance((PsiClass)parentElement);
+      final Iterable<PsiMethod> methods = annotatedMethod == null
+          ? table.getEligibleMethods()
+          : table.getEligibleMethods(annotatedMethod.getParameterList().getParametersCount());
 
-      for(final PsiMethod method : klass.getMethods()) {
+      for(final PsiMethod method : methods) {
         variants.add(LookupElementBuilder.create(method));
       }
     }
@@ -132,6 +148,13 @@ public final class MacroMethodReference extends PsiReferenceBase<PsiLiteralExpre
   @NotNull
   @Override
   public final ResolveResult[] multiResolve(final boolean incompleteCode) {
+    return ResolveCache.
+        getInstance(getElement().getProject()).
+        resolveWithCaching(this, RESOLVER, /*needToPreventRecursion=*/false, incompleteCode);
+  }
+
+  @NotNull
+  private ResolveResult[] resolveMethods(final boolean incompleteCode) {
     final ResolveResult[] parentResults = parent.multiResolve(incompleteCode);
     final ArrayList<ResolveResult> result = Lists.newArrayListWithExpectedSize(parentResults.length);
     final String value = getValue();
@@ -143,10 +166,7 @@ public final class MacroMethodReference extends PsiReferenceBase<PsiLiteralExpre
         continue;
       }
 
-      final PsiClass klass = (PsiClass)parentElement;
-      final PsiMethod[] methods = klass.findMethodsByName(value, true);
-
-      for(final PsiMethod method : methods) {
+      for(final PsiMethod method : MacroMethodTable.getInstance((PsiClass)parentElement).findMethodsByName(value)) {
         result.add(new PsiElementResolveResult(method));
       }
     }
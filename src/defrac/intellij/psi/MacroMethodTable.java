@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.psi;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import defrac.intellij.util.Names;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+import static defrac.intellij.psi.DescriptorUtil.getDescriptor;
+
+/**
+ * Methods of a macro class including inherited ones
+ *
+ * <p>Methods are grouped by name and eligible macro methods are grouped by arity
+ * as well. A macro method is eligible if it returns a {@code MethodBody} and
+ * accepts only {@code Parameter} arguments. A table is immutable and cached on its
+ * class until the Java structure changes.
+ */
+public final class MacroMethodTable {
+  @NotNull
+  private static final String PARAMETER_DESCRIPTOR = toDescriptor(Names.defrac_compiler_macro_Parameter);
+
+  @NotNull
+  private static final String METHOD_BODY_DESCRIPTOR = toDescriptor(Names.defrac_compiler_macro_MethodBody);
+
+  @NotNull
+  public static MacroMethodTable getInstance(@NotNull final PsiClass klass) {
+    return CachedValuesManager.getCachedValue(klass, new CachedValueProvider<MacroMethodTable>() {
+      @Nullable
+      @Override
+      public Result<MacroMethodTable> compute() {
+        return Result.create(new MacroMethodTable(klass), PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT);
+      }
+    });
+  }
+
+  @NotNull
+  private final ImmutableListMultimap<String, PsiMethod> methodsByName;
+
+  @NotNull
+  private final ImmutableListMultimap<Integer, PsiMethod> eligibleMethodsByArity;
+
+  private MacroMethodTable(@NotNull final PsiClass klass) {
+    final ImmutableListMultimap.Builder<String, PsiMethod> methodsByName = ImmutableListMultimap.builder();
+    final ImmutableListMultimap.Builder<Integer, PsiMethod> eligibleMethodsByArity = ImmutableListMultimap.builder();
+
+    for(final PsiMethod method : klass.getAllMethods()) {
+      if(method.isConstructor()) {
+        continue;
+      }
+
+      methodsByName.put(method.getName(), method);
+
+      if(isEligible(method)) {
+        eligibleMethodsByArity.put(method.getParameterList().getParametersCount(), method);
+      }
+    }
+
+    this.methodsByName = methodsByName.build();
+    this.eligibleMethodsByArity = eligibleMethodsByArity.build();
+  }
+
+  /**
+   * Returns all methods with the given name like {@link PsiClass#findMethodsByName(String, boolean)}
+   */
+  @NotNull
+  public List<PsiMethod> findMethodsByName(@Nullable final String name) {
+    return methodsByName.get(name);
+  }
+
+  /**
+   * Returns all eligible macro methods accepting the given number of parameters
+   */
+  @NotNull
+  public List<PsiMethod> getEligibleMethods(final int arity) {
+    return eligibleMethodsByArity.get(arity);
+  }
+
+  /**
+   * Returns all eligible macro methods
+   */
+  @NotNull
+  public Iterable<PsiMethod> getEligibleMethods() {
+    return eligibleMethodsByArity.values();
+  }
+
+  private static boolean isEligible(@NotNull final PsiMethod method) {
+    final String descriptor = getDescriptor(method);
+    final int indexOfParen = descriptor.indexOf(')');
+
+    if(!METHOD_BODY_DESCRIPTOR.equals(descriptor.substring(indexOfParen + 1))) {
+      return false;
+    }
+
+    // nothing but Parameter descriptors between the parentheses
+    return descriptor.substring(1, indexOfParen).replace(PARAMETER_DESCRIPTOR, "").isEmpty();
+  }
+
+  @NotNull
+  private static String toDescriptor(@NotNull final String qualifiedName) {
+    return 'L'+qualifiedName.replace('.', '/')+';';
+  }
+}
@@ -20,6 +20,7 @@ import com.intellij.json.psi.JsonStringLiteral;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.*;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.IncorrectOperationException;
 import defrac.intellij.DefracPlatform;
@@ -31,6 +32,16 @@ import org.jetbrains.annotations.Nullable;
  *
  */
 public final class MainClassReference extends PsiReferenceBase<JsonStringLiteral> implements PsiPolyVariantReference, DefracReference {
+  @NotNull
+  private static final ResolveCache.PolyVariantResolver<MainClassReference> RESOLVER =
+      new ResolveCache.PolyVariantResolver<MainClassReference>() {
+        @NotNull
+        @Override
+        public ResolveResult[] resolve(@NotNull final MainClassReference reference, final boolean incompleteCode) {
+          return reference.resolveClasses();
+        }
+      };
+
   @NotNull
   private final DefracPlatform platform;
 
@@ -90,6 +101,13 @@ public final class MainClassReference extends PsiReferenceBase<JsonStringLiteral
   @NotNull
   @Override
   public final ResolveResult[] multiResolve(final boolean incompleteCode) {
+    return ResolveCache.
+        getInstance(getElement().getProject()).
+        resolveWithCaching(this, RESOLVER, /*needToPreventRecursion=*/false, incompleteCode);
+  }
+
+  @NotNull
+  private ResolveResult[] resolveClasses() {
     final Project project = getElement().getProject();
     final GlobalSearchScope scope = getSearchScope(project);
     final PsiElement[] results = JavaPsiFacade.getInstance(project).findClasses(getValue(), scope);
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.psi;
+
+import com.google.common.collect.ImmutableSet;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.ProjectScope;
+import com.intellij.psi.search.searches.AnnotatedElementsSearch;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.Processor;
+import defrac.intellij.sdk.DefracSdkClasses;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Set;
+
+/**
+ * Names of all fields annotated with {@code @ReadOnly} or {@code @WriteOnly}
+ *
+ * <p>A reference whose name is not in a set can't resolve to such a field. Fields of
+ * libraries like the SDK are collected once until the roots change. Fields of the
+ * project are collected again after a change outside of a code block.
+ */
+public final class ReadWriteFieldNames {
+  @NotNull
+  private static final Key<CachedValue<ReadWriteFieldNames>> LIBRARY_NAMES =
+      Key.create("defrac.readWrite.libraryNames");
+
+  @NotNull
+  private static final Key<CachedValue<ReadWriteFieldNames>> PROJECT_NAMES =
+      Key.create("defrac.readWrite.projectNames");
+
+  /**
+   * Returns whether or not a reference with the given name may resolve to a {@code @ReadOnly} field
+   */
+  public static boolean mayBeReadOnly(@NotNull final Project project,
+                                      @Nullable final String name) {
+    return name != null
+        && (getNames(project, LIBRARY_NAMES, /*libraries=*/true).readOnlyNames.contains(name)
+         || getNames(project, PROJECT_NAMES, /*libraries=*/false).readOnlyNames.contains(name));
+  }
+
+  /**
+   * Returns whether or not a reference with the given name may resolve to a {@code @WriteOnly} field
+   */
+  public static boolean mayBeWriteOnly(@NotNull final Project project,
+                                       @Nullable final String name) {
+    return name != null
+        && (getNames(project, LIBRARY_NAMES, /*libraries=*/true).writeOnlyNames.contains(name)
+         || getNames(project, PROJECT_NAMES, /*libraries=*/false).writeOnlyNames.contains(name));
+  }
+
+  @NotNull
+  private static ReadWriteFieldNames getNames(@NotNull final Project project,
+                                              @NotNull final Key<CachedValue<ReadWriteFieldNames>> key,
+                                              final boolean libraries) {
+    return CachedValuesManager.getManager(project).getCachedValue(project, key, new CachedValueProvider<ReadWriteFieldNames>() {
+      @Nullable
+      @Override
+      public Result<ReadWriteFieldNames> compute() {
+        final DefracSdkClasses sdkClasses = DefracSdkClasses.getInstance(project);
+        final GlobalSearchScope scope = libraries
+            ? ProjectScope.getLibrariesScope(project)
+            : ProjectScope.getContentScope(project);
+
+        return Result.create(
+            new ReadWriteFieldNames(
+                collectNames(sdkClasses.getReadOnlyClass(), scope),
+                collectNames(sdkClasses.getWriteOnlyClass(), scope)),
+            libraries
+                ? ProjectRootManager.getInstance(project)
+                : PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT);
+      }
+    }, /*trackValue=*/false);
+  }
+
+  @NotNull
+  private static Set<String> collectNames(@Nullable final PsiClass annotationClass,
+                                          @NotNull final GlobalSearchScope scope) {
+    if(annotationClass == null) {
+      return ImmutableSet.of();
+    }
+
+    final ImmutableSet.Builder<String> names = ImmutableSet.builder();
+
+    AnnotatedElementsSearch.searchPsiFields(annotationClass, scope).forEach(new Processor<PsiField>() {
+      @Override
+      public boolean process(final PsiField field) {
+        names.add(field.getName());
+        return true;
+      }
+    });
+
+    return names.build();
+  }
+
+  @NotNull
+  private final Set<String> readOnlyNames;
+
+  @NotNull
+  private final Set<String> writeOnlyNames;
+
+  private ReadWriteFieldNames(@NotNull final Set<String> readOnlyNames,
+                              @NotNull final Set<String> writeOnlyNames) {
+    this.readOnlyNames = readOnlyNames;
+    this.writeOnlyNames = writeOnlyNames;
+  }
+}
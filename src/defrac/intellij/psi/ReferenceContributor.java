@@ -32,23 +32,11 @@ public final class ReferenceContributor extends PsiReferenceContributor {
 
   @Override
   public void registerReferenceProviders(@NotNull final PsiReferenceRegistrar registrar) {
-    registrar.registerReferenceProvider(
-        psiElement(PsiLiteralExpression.class).
-            withSuperParent(3, psiElement(PsiAnnotation.class)),
-        new InjectionReferenceProvider()
-    );
-
-    registrar.registerReferenceProvider(
-        psiElement(PsiLiteralExpression.class).
-            withSuperParent(3, psiElement(PsiAnnotation.class)),
-        new InjectorReferenceProvider()
-    );
-
     registrar.registerReferenceProvider(
         psiElement(PsiLiteralExpression.class).
             withLanguage(JavaLanguage.INSTANCE).
             withSuperParent(3, psiElement(PsiAnnotation.class)),
-        new MacroReferenceProvider()
+        new AnnotationReferenceProvider()
     );
 
     registrar.registerReferenceProvider(
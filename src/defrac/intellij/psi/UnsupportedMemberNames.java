@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.psi;
+
+import com.google.common.collect.ImmutableSet;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMember;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.ProjectScope;
+import com.intellij.psi.search.searches.AnnotatedElementsSearch;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.Processor;
+import defrac.intellij.DefracPlatform;
+import defrac.intellij.sdk.DefracSdkClasses;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Names of all members that are unsupported on a platform
+ *
+ * <p>A reference whose name is not in the set of a platform can't resolve to a member
+ * that is unsupported on that platform. Members of libraries like the SDK are collected
+ * once until the roots change. Members of the project are collected again after a change
+ * outside of a code block.
+ */
+public final class UnsupportedMemberNames {
+  @NotNull
+  private static final Key<CachedValue<Map<DefracPlatform, Set<String>>>> LIBRARY_NAMES =
+      Key.create("defrac.unsupported.libraryNames");
+
+  @NotNull
+  private static final Key<CachedValue<Map<DefracPlatform, Set<String>>>> PROJECT_NAMES =
+      Key.create("defrac.unsupported.projectNames");
+
+  /**
+   * Returns whether or not a reference with the given name may resolve to an unsupported member
+   *
+   * @param project The current project
+   * @param name The name of the reference
+   * @param platform The platform to check
+   * @return {@code true} if a member with this name is unsupported on the platform
+   */
+  public static boolean mayBeUnsupported(@NotNull final Project project,
+                                         @Nullable final String name,
+                                         @NotNull final DefracPlatform platform) {
+    if(name == null || platform.isGeneric()) {
+      return false;
+    }
+
+    return getNames(project, LIBRARY_NAMES, /*libraries=*/true).get(platform).contains(name)
+        || getNames(project, PROJECT_NAMES, /*libraries=*/false).get(platform).contains(name);
+  }
+
+  @NotNull
+  private static Map<DefracPlatform, Set<String>> getNames(@NotNull final Project project,
+                                                           @NotNull final Key<CachedValue<Map<DefracPlatform, Set<String>>>> key,
+                                                           final boolean libraries) {
+    return CachedValuesManager.getManager(project).getCachedValue(project, key, new CachedValueProvider<Map<DefracPlatform, Set<String>>>() {
+      @Nullable
+      @Override
+      public Result<Map<DefracPlatform, Set<String>>> compute() {
+        final GlobalSearchScope scope = libraries
+            ? ProjectScope.getLibrariesScope(project)
+            : ProjectScope.getContentScope(project);
+
+        return Result.create(
+            collectNames(project, scope),
+            libraries
+                ? ProjectRootManager.getInstance(project)
+                : PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT);
+      }
+    }, /*trackValue=*/false);
+  }
+
+  @NotNull
+  private static Map<DefracPlatform, Set<String>> collectNames(@NotNull final Project project,
+                                                               @NotNull final GlobalSearchScope scope) {
+    final DefracSdkClasses sdkClasses = DefracSdkClasses.getInstance(project);
+    final Map<DefracPlatform, Set<String>> result = new EnumMap<DefracPlatform, Set<String>>(DefracPlatform.class);
+
+    for(final DefracPlatform platform : DefracPlatform.values()) {
+      final PsiClass annotationClass = sdkClasses.getUnsupportedAnnotationClass(platform);
+
+      if(annotationClass == null) {
+        result.put(platform, ImmutableSet.<String>of());
+        continue;
+      }
+
+      final ImmutableSet.Builder<String> names = ImmutableSet.builder();
+
+      AnnotatedElementsSearch.searchPsiMembers(annotationClass, scope).forEach(new Processor<PsiMember>() {
+        @Override
+        public boolean process(final PsiMember member) {
+          final String name = member.getName();
+
+          if(name != null) {
+            names.add(name);
+          }
+
+          return true;
+        }
+      });
+
+      result.put(platform, names.build());
+    }
+
+    return result;
+  }
+
+  private UnsupportedMemberNames() {}
+}
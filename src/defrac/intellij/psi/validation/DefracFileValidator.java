@@ -0,0 +1,207 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.psi.validation;
+
+import com.google.common.collect.Lists;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiTreeUtil;
+import defrac.intellij.facet.DefracFacet;
+import defrac.intellij.psi.InjectionClassReference;
+import defrac.intellij.psi.InjectorClassReference;
+import defrac.intellij.psi.MacroMethodReference;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.intellij.psi.util.PsiTreeUtil.getParentOfType;
+import static com.intellij.psi.util.PsiUtil.mapElements;
+import static defrac.intellij.psi.DefracPsiUtil.*;
+
+/**
+ * Validates all multi-platform classes and macros referenced by a file
+ *
+ * <p>Each {@code @Inject}, {@code @Injector} and {@code @Macro} literal of the file is
+ * resolved and its targets are validated. Unresolved and ambiguous targets are reported
+ * by the annotators and skipped here. Requires a read action.
+ */
+public final class DefracFileValidator {
+  /**
+   * Returns whether or not a file may reference multi-platform classes or macros
+   *
+   * @param file The file
+   * @return {@code true} if the file is a Java file of a defrac source module
+   */
+  public static boolean isApplicable(@NotNull final PsiFile file) {
+    if(!(file instanceof PsiJavaFile)) {
+      return false;
+    }
+
+    final DefracFacet facet = DefracFacet.getInstance(file);
+    return facet != null && !facet.isMacroLibrary();
+  }
+
+  /**
+   * Validates the targets of all defrac annotations in a file
+   *
+   * @param file The file
+   * @return The elements with problems; empty if all targets are valid
+   */
+  @NotNull
+  public static List<Diagnostic> validate(@NotNull final PsiFile file) {
+    if(!isApplicable(file)) {
+      return Collections.emptyList();
+    }
+
+    final List<Diagnostic> diagnostics = Lists.newArrayList();
+
+    for(final PsiLiteralExpression literal : PsiTreeUtil.findChildrenOfType(file, PsiLiteralExpression.class)) {
+      final PsiAnnotation annotation =
+          getParentOfType(literal, PsiAnnotation.class, /*strict=*/false);
+
+      if(annotation == null) {
+        continue;
+      }
+
+      if(isInjectAnnotation(annotation)) {
+        validateInjections(literal, diagnostics);
+      } else if(isInjectorAnnotation(annotation)) {
+        validateInjector(literal, diagnostics);
+      } else if(isMacroAnnotation(annotation)) {
+        validateMacro(literal, diagnostics);
+      }
+    }
+
+    return diagnostics;
+  }
+
+  private static void validateInjections(@NotNull final PsiLiteralExpression literal,
+                                         @NotNull final List<Diagnostic> diagnostics) {
+    final PsiClass injectorClass = getParentOfType(literal, PsiClass.class, /*strict=*/false);
+
+    if(injectorClass == null) {
+      return;
+    }
+
+    for(final PsiReference reference : literal.getReferences()) {
+      if(!(reference instanceof InjectionClassReference)) {
+        continue;
+      }
+
+      for(final PsiElement injectionClass : mapElements(((InjectionClassReference)reference).multiResolve())) {
+        addDiagnostic(diagnostics, literal, MultiPlatformClassValidator.validate(injectorClass, injectionClass));
+      }
+    }
+  }
+
+  private static void validateInjector(@NotNull final PsiLiteralExpression literal,
+                                       @NotNull final List<Diagnostic> diagnostics) {
+    final PsiClass klass = getParentOfType(literal, PsiClass.class, /*strict=*/false);
+
+    if(klass == null) {
+      return;
+    }
+
+    final PsiIdentifier nameIdentifier = klass.getNameIdentifier();
+
+    if(nameIdentifier == null) {
+      return;
+    }
+
+    for(final PsiReference reference : literal.getReferences()) {
+      if(!(reference instanceof InjectorClassReference)) {
+        continue;
+      }
+
+      final PsiElement[] injectors = mapElements(((InjectorClassReference)reference).multiResolve());
+
+      // ambiguous injectors are reported by the InjectionAnnotator
+      if(injectors.length == 1) {
+        addDiagnostic(diagnostics, nameIdentifier, MultiPlatformClassValidator.validate(injectors[0], klass));
+      }
+    }
+  }
+
+  private static void validateMacro(@NotNull final PsiLiteralExpression literal,
+                                    @NotNull final List<Diagnostic> diagnostics) {
+    final PsiMethod method = getParentOfType(literal, PsiMethod.class, /*strict=*/false);
+
+    if(method == null) {
+      return;
+    }
+
+    final int arity = method.getParameterList().getParametersCount();
+
+    for(final PsiReference reference : literal.getReferences()) {
+      if(!(reference instanceof MacroMethodReference)) {
+        continue;
+      }
+
+      // methods with a different arity are reported by the MacroAnnotator
+      for(final PsiElement result : mapElements(((MacroMethodReference)reference).multiResolve())) {
+        if(result instanceof PsiMethod
+            && arity == ((PsiMethod)result).getParameterList().getParametersCount()) {
+          addDiagnostic(diagnostics, literal, MacroValidator.validate(method, (PsiMethod)result));
+          break;
+        }
+      }
+    }
+  }
+
+  private static void addDiagnostic(@NotNull final List<Diagnostic> diagnostics,
+                                    @NotNull final PsiElement element,
+                                    @NotNull final List<ValidationProblem> problems) {
+    if(!problems.isEmpty()) {
+      diagnostics.add(new Diagnostic(element, problems));
+    }
+  }
+
+  /**
+   * The problems of a single annotation literal or injection
+   */
+  public static final class Diagnostic {
+    @NotNull
+    private final PsiElement element;
+
+    @NotNull
+    private final List<ValidationProblem> problems;
+
+    Diagnostic(@NotNull final PsiElement element,
+               @NotNull final List<ValidationProblem> problems) {
+      this.element = element;
+      this.problems = problems;
+    }
+
+    /**
+     * Returns the element the problems are reported at
+     *
+     * <p>Use {@link ValidationProblem#getTarget(PsiElement)} to find the
+     * actual element of a problem.
+     */
+    @NotNull
+    public PsiElement getElement() {
+      return element;
+    }
+
+    @NotNull
+    public List<ValidationProblem> getProblems() {
+      return problems;
+    }
+  }
+
+  private DefracFileValidator() {}
+}
@@ -16,19 +16,19 @@
 
 package defrac.intellij.psi.validation;
 
+import com.google.common.collect.ImmutableList;
 import com.intellij.codeInsight.daemon.impl.quickfix.ExtendsListFix;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
-import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PsiTypesUtil;
 import defrac.intellij.DefracBundle;
 import defrac.intellij.annotator.quickfix.ChangeMacroSignatureQuickFix;
 import defrac.intellij.annotator.quickfix.ChangeReturnTypeQuickFix;
-import defrac.intellij.util.Names;
+import defrac.intellij.sdk.DefracSdkClasses;
 import org.jetbrains.annotations.NotNull;
 
-import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.List;
+
 import static defrac.intellij.psi.DefracPsiUtil.compareBytecodeTypes;
 
 /**
@@ -39,6 +39,21 @@ public final class MacroValidator {
                               @NotNull final AnnotationHolder holder,
                               @NotNull final PsiMethod thisMethod,
                               @NotNull final PsiMethod thatMethod) {
+    for(final ValidationProblem problem : validate(thisMethod, thatMethod)) {
+      problem.annotate(element, holder);
+    }
+  }
+
+  /**
+   * Validates a macro method against the method annotated with it
+   *
+   * @param thisMethod The method annotated with the macro
+   * @param thatMethod The macro method
+   * @return The problems found; empty if the macro is valid
+   */
+  @NotNull
+  public static List<ValidationProblem> validate(@NotNull final PsiMethod thisMethod,
+                                                 @NotNull final PsiMethod thatMethod) {
     // Macro Validation
     // ===================
     // (1) Check same arity
@@ -51,30 +66,27 @@ public final class MacroValidator {
     final int arity = thisMethod.getParameterList().getParametersCount();
 
     if(arity != thatMethod.getParameterList().getParametersCount()) {
-      holder.
-          createErrorAnnotation(element,
-              DefracBundle.message("annotator.macro.arity", arity, arity == 1 ? "" : "s")).
-          registerFix(new ChangeMacroSignatureQuickFix(thatMethod, thisMethod));
-      return;
+      return ImmutableList.of(new ValidationProblem(null,
+          DefracBundle.message("annotator.macro.arity", arity, arity == 1 ? "" : "s"),
+          new ChangeMacroSignatureQuickFix(thatMethod, thisMethod)));
     }
 
     // --
 
-    final Project project = element.getProject();
+    final ImmutableList.Builder<ValidationProblem> problems = ImmutableList.builder();
+    final DefracSdkClasses sdkClasses = DefracSdkClasses.getInstance(thisMethod.getProject());
     final PsiParameterList parameterList = thatMethod.getParameterList();
-    final JavaPsiFacade javaPsiFacade = JavaPsiFacade.getInstance(project);
-    final GlobalSearchScope scope = GlobalSearchScope.allScope(project);
-    final PsiClass classOfParameter = javaPsiFacade.findClass(Names.defrac_compiler_macro_Parameter, scope);
+    final PsiClass classOfParameter = sdkClasses.getParameterClass();
 
     if(classOfParameter == null) {
-      return;
+      return problems.build();
     }
 
     final PsiClassType typeOfParameter = PsiTypesUtil.getClassType(classOfParameter);
-    final PsiClass classOfMethodBody = checkNotNull(javaPsiFacade.findClass(Names.defrac_compiler_macro_MethodBody, scope));
+    final PsiClass classOfMethodBody = sdkClasses.getMethodBodyClass();
 
     if(classOfMethodBody == null) {
-      return;
+      return problems.build();
     }
 
     // (2)
@@ -82,37 +94,36 @@ public final class MacroValidator {
 
     for(final PsiParameter parameter : parameterList.getParameters()) {
       if(!compareBytecodeTypes(parameter.getType(), typeOfParameter)) {
-        holder.
-            createErrorAnnotation(element,
-                DefracBundle.message("annotator.macro.parameterType",
-                    parameter.getName(), classOfParameter.getName(), thatMethod.getName())).
-            registerFix(new ChangeMacroSignatureQuickFix(thatMethod, thisMethod));
+        problems.add(new ValidationProblem(null,
+            DefracBundle.message("annotator.macro.parameterType",
+                parameter.getName(), classOfParameter.getName(), thatMethod.getName()),
+            new ChangeMacroSignatureQuickFix(thatMethod, thisMethod)));
       }
     }
 
     // (3)
     if(!compareBytecodeTypes(thatMethod.getReturnType(), typeOfMethodBody)) {
-      holder.
-          createErrorAnnotation(element,
-              DefracBundle.message("annotator.macro.returnType", thatMethod.getName(), classOfMethodBody.getName())).
-          registerFix(new ChangeReturnTypeQuickFix(thatMethod, typeOfMethodBody));
+      problems.add(new ValidationProblem(null,
+          DefracBundle.message("annotator.macro.returnType", thatMethod.getName(), classOfMethodBody.getName()),
+          new ChangeReturnTypeQuickFix(thatMethod, typeOfMethodBody)));
     }
 
     // (4)
-    final PsiClass classOfMacro =  javaPsiFacade.findClass(Names.defrac_compiler_macro_Macro, scope);
+    final PsiClass classOfMacro = sdkClasses.getMacroClass();
 
     if(classOfMacro == null) {
-      return;
+      return problems.build();
     }
 
     final PsiClass thatClass = thatMethod.getContainingClass();
 
     if(thatClass != null && !thatClass.isInheritor(classOfMacro, true)) {
-      holder.
-          createErrorAnnotation(element,
-              DefracBundle.message("annotator.macro.mustExtend", thatClass.getName(), classOfMacro.getName())).
-          registerFix(new ExtendsListFix(thatClass, classOfMacro, true));
+      problems.add(new ValidationProblem(null,
+          DefracBundle.message("annotator.macro.mustExtend", thatClass.getName(), classOfMacro.getName()),
+          new ExtendsListFix(thatClass, classOfMacro, true)));
     }
+
+    return problems.build();
   }
 
   private MacroValidator() {}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.psi.validation;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.intellij.psi.*;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static defrac.intellij.psi.DefracPsiUtil.mapQualifiedName;
+import static defrac.intellij.psi.DescriptorUtil.getParameterDescriptor;
+
+/**
+ * Declared members of a class keyed by name and erased descriptor
+ *
+ * <p>Methods are keyed by their name and parameter descriptor, constructors only by
+ * their parameter descriptor. If a class declares the same key twice, the first
+ * member wins. A table is cached on its class until the Java structure changes.
+ */
+final class MemberTable {
+  @NotNull
+  public static MemberTable getInstance(@NotNull final PsiClass klass) {
+    return CachedValuesManager.getCachedValue(klass, new CachedValueProvider<MemberTable>() {
+      @Nullable
+      @Override
+      public Result<MemberTable> compute() {
+        return Result.create(new MemberTable(klass), PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT);
+      }
+    });
+  }
+
+  @NotNull
+  private final Set<String> interfaceNames;
+
+  @NotNull
+  private final List<PsiField> visibleFields = Lists.newArrayList();
+
+  @NotNull
+  private final Map<String, PsiField> fieldsByName = Maps.newHashMap();
+
+  @NotNull
+  private final List<PsiMethod> visibleMethods = Lists.newArrayList();
+
+  @NotNull
+  private final Map<String, PsiMethod> methodsBySignature = Maps.newHashMap();
+
+  @NotNull
+  private final ListMultimap<String, PsiMethod> methodsByName = ArrayListMultimap.create();
+
+  @NotNull
+  private final List<PsiMethod> visibleConstructors = Lists.newArrayList();
+
+  @NotNull
+  private final Map<String, PsiMethod> constructorsBySignature = Maps.newHashMap();
+
+  @NotNull
+  private final List<PsiClass> visibleInnerClasses = Lists.newArrayList();
+
+  @NotNull
+  private final Map<String, PsiClass> innerClassesByName = Maps.newHashMap();
+
+  private MemberTable(@NotNull final PsiClass klass) {
+    interfaceNames = ImmutableSet.copyOf(mapQualifiedName(klass.getInterfaces()));
+
+    for(final PsiField field : klass.getFields()) {
+      final PsiModifierList modifierList = field.getModifierList();
+
+      if(modifierList == null || !modifierList.hasModifierProperty(PsiModifier.PRIVATE)) {
+        visibleFields.add(field);
+      }
+
+      putIfAbsent(fieldsByName, field.getName(), field);
+    }
+
+    for(final PsiMethod method : klass.getMethods()) {
+      final boolean isVisible = !method.getModifierList().hasModifierProperty(PsiModifier.PRIVATE);
+
+      if(method.isConstructor()) {
+        if(isVisible) {
+          visibleConstructors.add(method);
+        }
+
+        putIfAbsent(constructorsBySignature, getParameterDescriptor(method), method);
+      } else {
+        if(isVisible) {
+          visibleMethods.add(method);
+        }
+
+        putIfAbsent(methodsBySignature, getSignatureKey(method), method);
+        methodsByName.put(method.getName(), method);
+      }
+    }
+
+    for(final PsiClass innerClass : klass.getInnerClasses()) {
+      final PsiModifierList modifierList = innerClass.getModifierList();
+
+      if(modifierList != null && !modifierList.hasModifierProperty(PsiModifier.PRIVATE)) {
+        visibleInnerClasses.add(innerClass);
+      }
+
+      putIfAbsent(innerClassesByName, innerClass.getName(), innerClass);
+    }
+  }
+
+  public boolean implementsInterface(@Nullable final String qualifiedName) {
+    return interfaceNames.contains(qualifiedName);
+  }
+
+  @NotNull
+  public List<PsiField> getVisibleFields() {
+    return visibleFields;
+  }
+
+  @Nullable
+  public PsiField findField(@Nullable final String name) {
+    return fieldsByName.get(name);
+  }
+
+  @NotNull
+  public List<PsiMethod> getVisibleMethods() {
+    return visibleMethods;
+  }
+
+  /**
+   * Returns the method with the same name and parameter descriptor
+   */
+  @Nullable
+  public PsiMethod findMethod(@NotNull final PsiMethod method) {
+    return methodsBySignature.get(getSignatureKey(method));
+  }
+
+  @NotNull
+  public List<PsiMethod> findMethodsByName(@NotNull final String name) {
+    return methodsByName.get(name);
+  }
+
+  @NotNull
+  public List<PsiMethod> getVisibleConstructors() {
+    return visibleConstructors;
+  }
+
+  /**
+   * Returns the constructor with the same parameter descriptor
+   */
+  @Nullable
+  public PsiMethod findConstructor(@NotNull final PsiMethod constructor) {
+    return constructorsBySignature.get(getParameterDescriptor(constructor));
+  }
+
+  @NotNull
+  public List<PsiClass> getVisibleInnerClasses() {
+    return visibleInnerClasses;
+  }
+
+  @Nullable
+  public PsiClass findInnerClass(@Nullable final String name) {
+    return innerClassesByName.get(name);
+  }
+
+  @NotNull
+  private static String getSignatureKey(@NotNull final PsiMethod method) {
+    return method.getName()+getParameterDescriptor(method);
+  }
+
+  private static <K, V> void putIfAbsent(@NotNull final Map<K, V> map,
+                                         @Nullable final K key,
+                                         @NotNull final V value) {
+    if(key != null && !map.containsKey(key)) {
+      map.put(key, value);
+    }
+  }
+}
@@ -16,26 +16,30 @@
 
 package defrac.intellij.psi.validation;
 
-import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
 import com.intellij.codeInsight.daemon.impl.quickfix.AddMethodFix;
 import com.intellij.codeInsight.daemon.impl.quickfix.CreateMethodQuickFix;
 import com.intellij.codeInsight.daemon.impl.quickfix.ExtendsListFix;
-import com.intellij.lang.annotation.Annotation;
 import com.intellij.lang.annotation.AnnotationHolder;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.psi.*;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import defrac.intellij.DefracBundle;
 import defrac.intellij.annotator.quickfix.*;
 import defrac.intellij.psi.AccessMethodDetector;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Map;
-import java.util.Set;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 
 import static defrac.intellij.psi.DefracPsiUtil.*;
+import static defrac.intellij.psi.DescriptorUtil.getDescriptor;
+import static defrac.intellij.psi.DescriptorUtil.getReturnTypeDescriptor;
 import static defrac.intellij.util.Grammar.buildGenitive;
 
 /**
@@ -49,19 +53,93 @@ public final class MultiPlatformClassValidator {
                               @NotNull final AnnotationHolder holder,
                               @NotNull final PsiElement injectorElement,
                               @Nullable final PsiElement injectionElement) {
-    if(!(injectorElement instanceof PsiClass)) {
-      holder.createErrorAnnotation(element, DefracBundle.message("annotator.expect.class"));
-      return;
+    for(final ValidationProblem problem : validate(injectorElement, injectionElement)) {
+      problem.annotate(element, holder);
     }
+  }
 
-    if(!(injectionElement instanceof PsiClass)) {
-      holder.createErrorAnnotation(element, DefracBundle.message("annotator.expect.class"));
-      return;
+  /**
+   * Validates the resolved targets of an injection
+   *
+   * @param injectorElement The injector
+   * @param injectionElement The injection
+   * @return The problems found; empty if the injection is valid
+   */
+  @NotNull
+  public static List<ValidationProblem> validate(@NotNull final PsiElement injectorElement,
+                                                 @Nullable final PsiElement injectionElement) {
+    if(!(injectorElement instanceof PsiClass) || !(injectionElement instanceof PsiClass)) {
+      return ImmutableList.of(new ValidationProblem(null, DefracBundle.message("annotator.expect.class")));
+    }
+
+    return validate((PsiClass)injectorElement, (PsiClass)injectionElement);
+  }
+
+  /**
+   * Validates an injection against its injector
+   *
+   * <p>The result is cached per pair of classes until the file of either class
+   * or the Java structure of the project changes.
+   *
+   * @param injectorClass The injector
+   * @param injectionClass The injection
+   * @return The problems found; empty if the injection is valid
+   */
+  @NotNull
+  public static List<ValidationProblem> validate(@NotNull final PsiClass injectorClass,
+                                                 @NotNull final PsiClass injectionClass) {
+    final ConcurrentMap<PsiClass, CachedValue<List<ValidationProblem>>> injectorResults =
+        CachedValuesManager.getCachedValue(injectionClass, new CachedValueProvider<ConcurrentMap<PsiClass, CachedValue<List<ValidationProblem>>>>() {
+          @Nullable
+          @Override
+          public Result<ConcurrentMap<PsiClass, CachedValue<List<ValidationProblem>>>> compute() {
+            return Result.create(
+                Maps.<PsiClass, CachedValue<List<ValidationProblem>>>newConcurrentMap(),
+                PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT);
+          }
+        });
+
+    CachedValue<List<ValidationProblem>> result = injectorResults.get(injectorClass);
+
+    if(result == null) {
+      result = CachedValuesManager.getManager(injectionClass.getProject()).createCachedValue(new CachedValueProvider<List<ValidationProblem>>() {
+        @Nullable
+        @Override
+        public Result<List<ValidationProblem>> compute() {
+          final ImmutableList.Builder<ValidationProblem> problems = ImmutableList.builder();
+
+          validate(problems, null, injectorClass, injectionClass);
+
+          return Result.<List<ValidationProblem>>create(
+              problems.build(),
+              getDependency(injectorClass),
+              getDependency(injectionClass),
+              PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT);
+        }
+      }, /*trackValue=*/false);
+
+      final CachedValue<List<ValidationProblem>> existing = injectorResults.putIfAbsent(injectorClass, result);
+
+      if(existing != null) {
+        result = existing;
+      }
     }
 
-    final PsiClass injectorClass = (PsiClass)injectorElement;
-    final PsiClass injectionClass = (PsiClass)injectionElement;
+    return result.getValue();
+  }
 
+  @NotNull
+  private static Object getDependency(@NotNull final PsiClass klass) {
+    // inner classes of the injector are checked for access methods
+    // which depends on code blocks as well
+    final PsiFile file = klass.getContainingFile();
+    return file == null ? PsiModificationTracker.MODIFICATION_COUNT : file;
+  }
+
+  private static void validate(@NotNull final ImmutableList.Builder<ValidationProblem> problems,
+                               @Nullable final PsiClass innerClass,
+                               @NotNull final PsiClass injectorClass,
+                               @NotNull final PsiClass injectionClass) {
     // Multi-Platform Class Validation
     // ===============================
     // (1) Check same base class
@@ -77,37 +155,33 @@ public final class MultiPlatformClassValidator {
 
     if(injectorSuper == null) {
       if(injectionSuper != null) {
-        holder.
-            createErrorAnnotation(element,
-                DefracBundle.message("annotator.multiPlatformClass.mustNotExtend", injectionClass.getName(), injectionSuper.getName())).
-            registerFix(new ChangeSuperClassQuickFix(injectionClass, null));
+        problems.add(new ValidationProblem(innerClass,
+            DefracBundle.message("annotator.multiPlatformClass.mustNotExtend", injectionClass.getName(), injectionSuper.getName()),
+            new ChangeSuperClassQuickFix(injectionClass, null)));
         return;
       }
     } else {
       if(injectionSuper == null || !isQualifiedNameEqual(injectorSuper, injectionSuper)) {
-        holder.
-            createErrorAnnotation(element,
-                DefracBundle.message("annotator.multiPlatformClass.mustExtend", injectionClass.getName(), injectorSuper.getName())).
-            registerFix(new ChangeSuperClassQuickFix(injectionClass, injectorSuper));
+        problems.add(new ValidationProblem(innerClass,
+            DefracBundle.message("annotator.multiPlatformClass.mustExtend", injectionClass.getName(), injectorSuper.getName()),
+            new ChangeSuperClassQuickFix(injectionClass, injectorSuper)));
         return;
       }
     }
 
+    final MemberTable injectorTable = MemberTable.getInstance(injectorClass);
+    final MemberTable injectionTable = MemberTable.getInstance(injectionClass);
+
     // (2)
     final PsiClass[] injectorInterfaces = injectorClass.getInterfaces();
     boolean interfacesHaveError = false;
 
-    if(injectorInterfaces.length != 0) {
-      final Set<String> injectionInterfaceQnames =
-          ImmutableSet.copyOf(mapQualifiedName(injectionClass.getInterfaces()));
-
-      for(final PsiClass injectorInterface : injectorInterfaces) {
-        if(!injectionInterfaceQnames.contains(injectorInterface.getQualifiedName())) {
-          holder.createErrorAnnotation(element,
-              DefracBundle.message("annotator.multiPlatformClass.mustImplement", injectionClass.getName(), injectorInterface.getName())).
-              registerFix(new ExtendsListFix(injectionClass, injectorInterface, true));
-          interfacesHaveError = true;
-        }
+    for(final PsiClass injectorInterface : injectorInterfaces) {
+      if(!injectionTable.implementsInterface(injectorInterface.getQualifiedName())) {
+        problems.add(new ValidationProblem(innerClass,
+            DefracBundle.message("annotator.multiPlatformClass.mustImplement", injectionClass.getName(), injectorInterface.getName()),
+            new ExtendsListFix(injectionClass, injectorInterface, true)));
+        interfacesHaveError = true;
       }
     }
 
@@ -116,17 +190,9 @@ public final class MultiPlatformClassValidator {
     }
 
     // (3)
-    final PsiField[] injectorFields = injectorClass.getFields();
-
-    for(final PsiField injectorField : injectorFields) {
-      final PsiModifierList modifierList = injectorField.getModifierList();
-
-      if(modifierList != null && modifierList.hasModifierProperty(PsiModifier.PRIVATE)) {
-        continue;
-      }
-
+    for(final PsiField injectorField : injectorTable.getVisibleFields()) {
       final PsiField injectionField =
-          injectionClass.findFieldByName(injectorField.getName(), false);
+          injectionTable.findField(injectorField.getName());
 
       if(injectionField == null) {
         /*
@@ -139,219 +205,137 @@ public final class MultiPlatformClassValidator {
                     PropertyMemberType.FIELD,
                     injectorField.getModifierList() == null ? PsiAnnotation.EMPTY_ARRAY : injectorField.getModifierList().getAnnotations())
          */
-        holder.
-            createErrorAnnotation(element,
-                DefracBundle.message("annotator.multiPlatformClass.field.missing", injectionClass.getName(), injectorField.getName())).
-            registerFix(new CreateFieldQuickFix(injectionClass, injectorField));
+        problems.add(new ValidationProblem(innerClass,
+            DefracBundle.message("annotator.multiPlatformClass.field.missing", injectionClass.getName(), injectorField.getName()),
+            new CreateFieldQuickFix(injectionClass, injectorField)));
         continue;
       }
 
-      if(!compareBytecodeTypes(injectorField.getType(), injectionField.getType())) {
-        holder.
-            createErrorAnnotation(element,
-                DefracBundle.message("annotator.multiPlatformClass.field.type",
-                    buildGenitive(injectionClass.getName()), injectorField.getName(), injectorField.getType().getPresentableText())).
-        registerFix(new ChangeVariableTypeQuickFix(injectionField, injectorField.getType()));
+      if(!getDescriptor(injectorField).equals(getDescriptor(injectionField))) {
+        problems.add(new ValidationProblem(innerClass,
+            DefracBundle.message("annotator.multiPlatformClass.field.type",
+                buildGenitive(injectionClass.getName()), injectorField.getName(), injectorField.getType().getPresentableText()),
+            new ChangeVariableTypeQuickFix(injectionField, injectorField.getType())));
         continue;
       }
 
       if(!isEqualVisibility(injectorField, injectionField)) {
         final String visibility = getVisibility(injectorField);
 
-        holder.
-            createErrorAnnotation(element,
-                DefracBundle.message("annotator.multiPlatformClass.field.visibility",
-                    buildGenitive(injectionClass.getName()), injectorField.getName(), visibility)).
-            registerFix(new ChangeVisibilityQuickFix(injectionField, visibility));
+        problems.add(new ValidationProblem(innerClass,
+            DefracBundle.message("annotator.multiPlatformClass.field.visibility",
+                buildGenitive(injectionClass.getName()), injectorField.getName(), visibility),
+            new ChangeVisibilityQuickFix(injectionField, visibility)));
       }
     }
 
     // (4)
-    final PsiMethod[] injectorMethods = injectorClass.getMethods();
-    Set<PsiMethod> visibleConstructors = null;
-
-    for(final PsiMethod injectorMethod : injectorMethods) {
-      final PsiModifierList modifierList = injectorMethod.getModifierList();
-
-      if(modifierList.hasModifierProperty(PsiModifier.PRIVATE)) {
-        continue;
-      }
-
-      if(injectorMethod.isConstructor()) {
-        if(visibleConstructors == null) {
-          visibleConstructors = Sets.newHashSet();
+    for(final PsiMethod injectorMethod : injectorTable.getVisibleMethods()) {
+      final PsiMethod injectionMethod = injectionTable.findMethod(injectorMethod);
+
+      if(injectionMethod == null) {
+        final List<PsiMethod> injectionMethods =
+            injectionTable.findMethodsByName(injectorMethod.getName());
+
+        if(injectionMethods.isEmpty()) {
+          problems.add(new ValidationProblem(innerClass,
+              DefracBundle.message("annotator.multiPlatformClass.method.missing",
+                  injectionClass.getName(), injectorMethod.getName()),
+              new AddMethodFix(injectorMethod, injectionClass)));
+          continue;
         }
 
-        visibleConstructors.add(injectorMethod);
-        continue;
-      }
-
-      final PsiMethod[] injectionMethods =
-          injectionClass.findMethodsByName(injectorMethod.getName(), false);
+        final String message =
+            DefracBundle.message("annotator.multiPlatformClass.method.signature",
+                buildGenitive(injectionClass.getName()), injectorMethod.getName());
 
-      if(injectionMethods.length == 0) {
-        final Annotation annotation = holder.
-            createErrorAnnotation(element,
-                DefracBundle.message("annotator.multiPlatformClass.method.missing",
-                    injectionClass.getName(), injectorMethod.getName()));
-
-        annotation.registerFix(
-            new AddMethodFix(injectorMethod, injectionClass));
+        if(injectionMethods.size() == 1) {
+          problems.add(new ValidationProblem(innerClass, message,
+              new ChangeMethodSignatureQuickFix(injectionMethods.get(0), injectorMethod)));
+        } else {
+          problems.add(new ValidationProblem(innerClass, message));
+        }
 
         continue;
       }
 
-      boolean isSignatureEqual = false;
-
-      for(final PsiMethod injectionMethod : injectionMethods) {
-        if(isSignatureEqual(injectorMethod, injectionMethod)) {
-          isSignatureEqual = true;
-
-          final PsiType thisReturnType = injectorMethod.getReturnType();
-
-          if(!compareBytecodeTypes(thisReturnType, injectionMethod.getReturnType())) {
-            final Annotation annotation = holder.
-                createErrorAnnotation(element,
-                    DefracBundle.message("annotator.multiPlatformClass.method.returnType",
-                        buildGenitive(injectionClass.getName()), injectorMethod.getName(),
-                        thisReturnType == null ? "?" : thisReturnType.getPresentableText()));
-            if(thisReturnType != null) {
-              annotation.
-                  registerFix(new ChangeReturnTypeQuickFix(injectionMethod, thisReturnType));
-            }
-            break;
-          }
-
-          if(!isEqualVisibility(injectorMethod, injectionMethod)) {
-            final String visibility = getVisibility(injectorMethod);
-            holder.
-                createErrorAnnotation(element,
-                    DefracBundle.message("annotator.multiPlatformClass.method.visibility",
-                        buildGenitive(injectionClass.getName()), injectorMethod.getName(), visibility)).
-                registerFix(new ChangeVisibilityQuickFix(injectionMethod, visibility));
-          }
-
-          break;
+      if(!getReturnTypeDescriptor(injectorMethod).equals(getReturnTypeDescriptor(injectionMethod))) {
+        final PsiType thisReturnType = injectorMethod.getReturnType();
+        final String message =
+            DefracBundle.message("annotator.multiPlatformClass.method.returnType",
+                buildGenitive(injectionClass.getName()), injectorMethod.getName(),
+                thisReturnType == null ? "?" : thisReturnType.getPresentableText());
+
+        if(thisReturnType != null) {
+          problems.add(new ValidationProblem(innerClass, message,
+              new ChangeReturnTypeQuickFix(injectionMethod, thisReturnType)));
+        } else {
+          problems.add(new ValidationProblem(innerClass, message));
         }
+        continue;
       }
 
-      if(!isSignatureEqual) {
-        final Annotation annotation = holder.
-            createErrorAnnotation(element,
-                DefracBundle.message("annotator.multiPlatformClass.method.signature",
-                    buildGenitive(injectionClass.getName()), injectorMethod.getName()));
+      if(!isEqualVisibility(injectorMethod, injectionMethod)) {
+        final String visibility = getVisibility(injectorMethod);
 
-        if(injectionMethods.length == 1) {
-          annotation.registerFix(new ChangeMethodSignatureQuickFix(injectionMethods[0], injectorMethod));
-        }
+        problems.add(new ValidationProblem(innerClass,
+            DefracBundle.message("annotator.multiPlatformClass.method.visibility",
+                buildGenitive(injectionClass.getName()), injectorMethod.getName(), visibility),
+            new ChangeVisibilityQuickFix(injectionMethod, visibility)));
       }
     }
 
     // (5)
-    if(visibleConstructors != null) {
-      assert !visibleConstructors.isEmpty();
-
-      final PsiMethod[] injectionConstructors = injectionClass.findMethodsByName(injectionClass.getName(), false);
-      final boolean injectionHasNoConstructors = injectionConstructors.length == 0;
-
-      for(final PsiMethod injectorConstructor : visibleConstructors) {
-        if(injectionHasNoConstructors) {
-          final Annotation annotation = holder.
-              createErrorAnnotation(element,
-                  DefracBundle.message("annotator.multiPlatformClass.constructor.missing",
-                      injectionClass.getName(), getParameterTypes(injectorConstructor)));
+    for(final PsiMethod injectorConstructor : injectorTable.getVisibleConstructors()) {
+      final PsiMethod injectionConstructor = injectionTable.findConstructor(injectorConstructor);
 
-          final CreateMethodQuickFix fix = CreateMethodQuickFix.
-              createFix(injectionClass, getConstructorSignature(injectionClass, injectorConstructor), "");
+      if(injectionConstructor == null) {
+        final String message =
+            DefracBundle.message("annotator.multiPlatformClass.constructor.missing",
+                injectionClass.getName(), getParameterTypes(injectorConstructor));
 
-          if(fix != null) {
-            annotation.registerFix(fix);
-          }
-
-          continue;
-        }
-
-        boolean isSignatureEqual = false;
+        final CreateMethodQuickFix fix = CreateMethodQuickFix.
+            createFix(injectionClass, getConstructorSignature(injectionClass, injectorConstructor), "");
 
-        for(final PsiMethod injectionConstructor : injectionConstructors) {
-          if(isSignatureEqual(injectorConstructor, injectionConstructor)) {
-            isSignatureEqual = true;
-
-            if(!isEqualVisibility(injectorConstructor, injectionConstructor)) {
-              final String visibility = getVisibility(injectorConstructor);
-              holder.
-                  createErrorAnnotation(element,
-                      DefracBundle.message("annotator.multiPlatformClass.constructor.visibility",
-                          buildGenitive(injectionClass.getName()), injectorConstructor.getName(),
-                          visibility)).
-                  registerFix(new ChangeVisibilityQuickFix(injectionConstructor, visibility));
-            }
-
-            break;
-          }
+        if(fix != null) {
+          problems.add(new ValidationProblem(innerClass, message, fix));
+        } else {
+          problems.add(new ValidationProblem(innerClass, message));
         }
 
-        if(!isSignatureEqual) {
-          final Annotation annotation = holder.
-              createErrorAnnotation(element,
-                  DefracBundle.message("annotator.multiPlatformClass.constructor.missing",
-                      injectionClass.getName(), getParameterTypes(injectorConstructor)));
+        continue;
+      }
 
-          final CreateMethodQuickFix fix = CreateMethodQuickFix.
-              createFix(injectionClass, getConstructorSignature(injectionClass, injectorConstructor), "");
+      if(!isEqualVisibility(injectorConstructor, injectionConstructor)) {
+        final String visibility = getVisibility(injectorConstructor);
 
-          if(fix != null) {
-            annotation.registerFix(fix);
-          }
-        }
+        problems.add(new ValidationProblem(innerClass,
+            DefracBundle.message("annotator.multiPlatformClass.constructor.visibility",
+                buildGenitive(injectionClass.getName()), injectorConstructor.getName(),
+                visibility),
+            new ChangeVisibilityQuickFix(injectionConstructor, visibility)));
       }
     }
 
     // (6)
-    final PsiClass[] injectorInnerClasses = injectorClass.getInnerClasses();
-
-    if(injectorInnerClasses.length != 0) {
-      final PsiClass[] injectionInnerClasses = injectionClass.getInnerClasses();
-      final ImmutableMap.Builder<String, PsiClass> builder = ImmutableMap.builder();
+    for(final PsiClass injectorInnerClass : injectorTable.getVisibleInnerClasses()) {
+      final PsiClass injectionInnerClass =
+          injectionTable.findInnerClass(injectorInnerClass.getName());
 
-      for(final PsiClass injectionInnerClass : injectionInnerClasses) {
-        builder.put(injectionInnerClass.getName(), injectionInnerClass);
+      if(injectionInnerClass != null) {
+        validate(problems, injectionInnerClass, injectorInnerClass, injectionInnerClass);
+        continue;
       }
 
-      final Map<String, PsiClass> injectionClassByName = builder.build();
-
-      for(final PsiClass injectorInnerClass : injectorInnerClasses) {
-        final PsiModifierList modifierList = injectorInnerClass.getModifierList();
-
-        if(modifierList == null || modifierList.hasModifierProperty(PsiModifier.PRIVATE)) {
-          continue;
-        }
-
-        final PsiClass injectionInnerClass = injectionClassByName.
-            get(injectorInnerClass.getName());
-
-        if(injectionInnerClass != null) {
-          MultiPlatformClassValidator.
-              annotate(
-                  element instanceof PsiLiteralExpression ? element : injectionInnerClass,
-                  holder, injectorInnerClass, injectionInnerClass);
-          continue;
-        }
-
-        final AccessMethodDetector accessMethodDetector =
-            new AccessMethodDetector(injectorInnerClass);
-
-        if(!accessMethodDetector.requiresAccessMethod()) {
-          continue;
-        }
+      if(!AccessMethodDetector.requiresAccessMethod(injectorInnerClass)) {
+        continue;
+      }
 
-        holder.
-            createErrorAnnotation(element,
-                DefracBundle.message("annotator.multiPlatformClass.innerClass.missing",
-                    injectionClass.getName(), injectorInnerClass.getName()));
+      problems.add(new ValidationProblem(innerClass,
+          DefracBundle.message("annotator.multiPlatformClass.innerClass.missing",
+              injectionClass.getName(), injectorInnerClass.getName())));
 
-        //TODO: provide fix to create inner class
-      }
+      //TODO: provide fix to create inner class
     }
   }
 
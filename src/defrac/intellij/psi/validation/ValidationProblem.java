@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.psi.validation;
+
+import com.google.common.collect.Lists;
+import com.intellij.codeInsight.intention.IntentionAction;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.lang.annotation.Annotation;
+import com.intellij.lang.annotation.AnnotationHolder;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiLiteralExpression;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * An immutable error found while validating a multi-platform class
+ *
+ * <p>A problem is not bound to the element it is reported at. Problems
+ * of inner classes remember the inner class of the injection instead.
+ */
+public final class ValidationProblem {
+  @Nullable
+  private final PsiClass innerClass;
+
+  @NotNull
+  private final String message;
+
+  @NotNull
+  private final IntentionAction[] fixes;
+
+  ValidationProblem(@Nullable final PsiClass innerClass,
+                    @NotNull final String message,
+                    @NotNull final IntentionAction... fixes) {
+    this.innerClass = innerClass;
+    this.message = message;
+    this.fixes = fixes;
+  }
+
+  /**
+   * Returns the inner class of the injection this problem belongs to
+   *
+   * @return The inner class or {@code null} if the problem belongs to the injection itself
+   */
+  @Nullable
+  public PsiClass getInnerClass() {
+    return innerClass;
+  }
+
+  @NotNull
+  public String getMessage() {
+    return message;
+  }
+
+  /**
+   * Returns the fixes of this problem that can be applied in batch mode
+   */
+  @NotNull
+  public LocalQuickFix[] getLocalQuickFixes() {
+    final List<LocalQuickFix> result = Lists.newArrayListWithExpectedSize(fixes.length);
+
+    for(final IntentionAction fix : fixes) {
+      if(fix instanceof LocalQuickFix) {
+        result.add((LocalQuickFix)fix);
+      }
+    }
+
+    return result.toArray(new LocalQuickFix[result.size()]);
+  }
+
+  /**
+   * Returns the element this problem is reported at
+   *
+   * <p>Problems of inner classes are reported at the inner class unless
+   * the element is the literal of an annotation.
+   *
+   * @param element The element the validation was requested for
+   * @return The element to report this problem at
+   */
+  @NotNull
+  public PsiElement getTarget(@NotNull final PsiElement element) {
+    return innerClass == null || element instanceof PsiLiteralExpression ? element : innerClass;
+  }
+
+  /**
+   * Creates an error annotation for this problem
+   *
+   * @param element The element the validation was requested for
+   * @param holder The holder to create the annotation with
+   */
+  public void annotate(@NotNull final PsiElement element,
+                       @NotNull final AnnotationHolder holder) {
+    final Annotation annotation = holder.createErrorAnnotation(getTarget(element), message);
+
+    for(final IntentionAction fix : fixes) {
+      annotation.registerFix(fix);
+    }
+  }
+}
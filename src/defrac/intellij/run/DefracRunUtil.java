@@ -30,11 +30,11 @@ import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiMethod;
-import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PsiMethodUtil;
 import com.intellij.psi.util.PsiTreeUtil;
 import defrac.intellij.facet.DefracFacet;
 import defrac.intellij.psi.DefracPsiUtil;
+import defrac.intellij.sdk.DefracSdkClasses;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -42,9 +42,6 @@ import org.jetbrains.annotations.Nullable;
  */
 public final class DefracRunUtil {
 
-  private static final String ANDROID_ACTIVITY = "android.app.Activity";
-  private static final String IOS_DELEGATE = "defrac.ios.uikit.UIApplicationDelegate";
-
   public static boolean isValidMainClass(@Nullable final Module module, @Nullable final PsiElement element) {
     if(module == null || element == null) {
       return false;
@@ -127,9 +124,7 @@ public final class DefracRunUtil {
   @Nullable
   public static PsiClass findUIDelegate(@NotNull final Module module,
                                         @NotNull final PsiElement element) {
-    final JavaPsiFacade facade = JavaPsiFacade.getInstance(element.getProject());
-    final GlobalSearchScope scope = module.getModuleWithDependenciesAndLibrariesScope(true);
-    final PsiClass delegateClass = facade.findClass(IOS_DELEGATE, scope);
+    final PsiClass delegateClass = DefracSdkClasses.getInstance(module.getProject()).getUIApplicationDelegateClass(module);
 
     if(delegateClass == null) {
       return null;
@@ -141,9 +136,7 @@ public final class DefracRunUtil {
   @Nullable
   public static PsiClass findActivityClass(@NotNull final Module module,
                                            @NotNull final PsiElement element) {
-    final JavaPsiFacade facade = JavaPsiFacade.getInstance(element.getProject());
-    final GlobalSearchScope scope = module.getModuleWithDependenciesAndLibrariesScope(true);
-    final PsiClass activityClass = facade.findClass(ANDROID_ACTIVITY, scope);
+    final PsiClass activityClass = DefracSdkClasses.getInstance(module.getProject()).getActivityClass(module);
 
     if(activityClass == null) {
       return null;
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2014 defrac inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package defrac.intellij.sdk;
+
+import com.google.common.collect.Maps;
+import com.intellij.ProjectTopics;
+import com.intellij.openapi.components.AbstractProjectComponent;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootAdapter;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.util.Pair;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.search.GlobalSearchScope;
+import defrac.intellij.DefracPlatform;
+import defrac.intellij.util.Names;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Well-known classes of the defrac SDK
+ *
+ * <p>Classes are looked up once and kept until the project roots change.
+ * Classes that depend on the SDK of a module are cached per module.
+ */
+public final class DefracSdkClasses extends AbstractProjectComponent {
+  @NotNull
+  public static DefracSdkClasses getInstance(@NotNull final Project project) {
+    return checkNotNull(project.getComponent(DefracSdkClasses.class));
+  }
+
+  @NotNull
+  private final ConcurrentMap<String, ClassHandle> projectClasses = Maps.newConcurrentMap();
+
+  @NotNull
+  private final ConcurrentMap<Pair<Module, String>, ClassHandle> moduleClasses = Maps.newConcurrentMap();
+
+  public DefracSdkClasses(@NotNull final Project project) {
+    super(project);
+  }
+
+  @Override
+  public void initComponent() {
+    myProject.getMessageBus().connect(myProject).subscribe(ProjectTopics.PROJECT_ROOTS, new ModuleRootAdapter() {
+      @Override
+      public void rootsChanged(final ModuleRootEvent event) {
+        projectClasses.clear();
+        moduleClasses.clear();
+      }
+    });
+  }
+
+  @Nullable
+  public PsiClass getMacroClass() {
+    return findProjectClass(Names.defrac_compiler_macro_Macro);
+  }
+
+  @Nullable
+  public PsiClass getParameterClass() {
+    return findProjectClass(Names.defrac_compiler_macro_Parameter);
+  }
+
+  @Nullable
+  public PsiClass getMethodBodyClass() {
+    return findProjectClass(Names.defrac_compiler_macro_MethodBody);
+  }
+
+  @Nullable
+  public PsiClass getReadOnlyClass() {
+    return findProjectClass(Names.defrac_dni_ReadOnly);
+  }
+
+  @Nullable
+  public PsiClass getWriteOnlyClass() {
+    return findProjectClass(Names.defrac_dni_WriteOnly);
+  }
+
+  @Nullable
+  public PsiClass getActivityClass(@NotNull final Module module) {
+    return findModuleClass(module, Names.android_app_Activity);
+  }
+
+  @Nullable
+  public PsiClass getUIApplicationDelegateClass(@NotNull final Module module) {
+    return findModuleClass(module, Names.defrac_ios_uikit_UIApplicationDelegate);
+  }
+
+  @Nullable
+  public PsiClass getUnsupportedAnnotationClass(@NotNull final DefracPlatform platform) {
+    final String qualifiedName = DefracPlatform.PLATFORM_TO_UNSUPPORTED_ANNOTATION.get(platform);
+    return qualifiedName == null ? null : findProjectClass(qualifiedName);
+  }
+
+  @Nullable
+  private PsiClass findProjectClass(@NotNull final String qualifiedName) {
+    final ClassHandle handle = projectClasses.get(qualifiedName);
+
+    if(handle != null && handle.isValid()) {
+      return handle.klass;
+    }
+
+    final PsiClass klass =
+        JavaPsiFacade.getInstance(myProject).findClass(qualifiedName, GlobalSearchScope.allScope(myProject));
+
+    projectClasses.put(qualifiedName, new ClassHandle(klass));
+
+    return klass;
+  }
+
+  @Nullable
+  private PsiClass findModuleClass(@NotNull final Module module,
+                                   @NotNull final String qualifiedName) {
+    final Pair<Module, String> key = Pair.create(module, qualifiedName);
+    final ClassHandle handle = moduleClasses.get(key);
+
+    if(handle != null && handle.isValid()) {
+      return handle.klass;
+    }
+
+    final PsiClass klass =
+        JavaPsiFacade.getInstance(myProject).findClass(qualifiedName, module.getModuleWithDependenciesAndLibrariesScope(true));
+
+    moduleClasses.put(key, new ClassHandle(klass));
+
+    return klass;
+  }
+
+  private static final class ClassHandle {
+    @Nullable
+    final PsiClass klass;
+
+    ClassHandle(@Nullable final PsiClass klass) {
+      this.klass = klass;
+    }
+
+    boolean isValid() {
+      // A class that doesn't exist stays absent until the roots change
+      return klass == null || klass.isValid();
+    }
+  }
+}
@@ -47,6 +47,9 @@ public final class Names {
   @NotNull @NonNls public static final String defrac_compiler_macro_Parameter = "defrac.compiler.macro.Parameter";
   @NotNull @NonNls public static final String defrac_compiler_macro_MethodBody = "defrac.compiler.macro.MethodBody";
 
+  @NotNull @NonNls public static final String android_app_Activity = "android.app.Activity";
+  @NotNull @NonNls public static final String defrac_ios_uikit_UIApplicationDelegate = "defrac.ios.uikit.UIApplicationDelegate";
+
   @NotNull @NonNls public static final String settingsSuffix = ".settings";
   @NotNull @NonNls public static final String default_settings = "default"+settingsSuffix;
 